@@ -0,0 +1,78 @@
+package com.tenshiku.guppycosmetics;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One tick of balloon physics for a server full of balloons, the per-tick cost of the update loop
+ * minus the entity calls. Should allocate nothing, check with -prof gc.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BalloonPhysicsBenchmark {
+    @Param({"1", "100", "1000"})
+    public int balloons;
+
+    private BalloonMotion[] motions;
+    private double[] playerX;
+    private double[] playerZ;
+    private float[] playerYaw;
+    private long tick;
+
+    @Setup
+    public void setup() {
+        SplittableRandom random = new SplittableRandom(42);
+        motions = new BalloonMotion[balloons];
+        playerX = new double[balloons];
+        playerZ = new double[balloons];
+        playerYaw = new float[balloons];
+
+        for (int i = 0; i < balloons; i++) {
+            motions[i] = new BalloonMotion();
+            playerX[i] = random.nextDouble(-1000, 1000);
+            playerZ[i] = random.nextDouble(-1000, 1000);
+            playerYaw[i] = (float) random.nextDouble(-180, 180);
+            motions[i].recordLast(playerX[i], 64, playerZ[i]);
+
+            // Start each balloon where it would float, the loop feeds its last target back in as its position
+            motions[i].targetX = playerX[i];
+            motions[i].targetY = 64 + BalloonPhysics.BALLOON_HEIGHT;
+            motions[i].targetZ = playerZ[i];
+        }
+    }
+
+    @Benchmark
+    public void stepAll(Blackhole blackhole) {
+        tick++;
+        for (int i = 0; i < balloons; i++) {
+            // Half the players walk, the other half stand still and let their balloon bob
+            if ((i & 1) == 0) {
+                playerX[i] += 0.2;
+            }
+
+            BalloonMotion motion = motions[i];
+            BalloonPhysics.step(motion, BalloonPhysics.TICK_SECONDS,
+                    playerX[i], 64, playerZ[i], playerYaw[i],
+                    motion.targetX, motion.targetY, motion.targetZ);
+        }
+        blackhole.consume(tick);
+        blackhole.consume(motions[0].targetY);
+    }
+}
@@ -0,0 +1,106 @@
+package com.tenshiku.guppycosmetics;
+
+import net.kyori.adventure.text.Component;
+import org.bukkit.block.BlockFace;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.event.block.Action;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.inventory.ItemStack;
+import org.mockbukkit.mockbukkit.MockBukkit;
+import org.mockbukkit.mockbukkit.ServerMock;
+import org.mockbukkit.mockbukkit.entity.PlayerMock;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Starts the plugin on a MockBukkit server for benchmarks that need real items and configs
+ */
+final class BenchmarkServer {
+    private BenchmarkServer() {
+    }
+
+    /**
+     * Start a mock server and enable the plugin on it
+     * @return The enabled plugin
+     */
+    static GuppyCosmetics start() {
+        MockBukkit.mock();
+        return MockBukkit.load(GuppyCosmetics.class);
+    }
+
+    static void stop() {
+        MockBukkit.unmock();
+    }
+
+    /**
+     * Replace the cosmetic configs with generated ones
+     * @param plugin The enabled plugin
+     * @param size Number of cosmetics of each type, production catalogs range from a few dozen to a few hundred
+     * @return The plugin's config manager, reloaded with the generated catalog
+     */
+    static ConfigManager writeCatalog(GuppyCosmetics plugin, int size) {
+        File cosmeticsDir = new File(plugin.getDataFolder(), "cosmetics");
+        cosmeticsDir.mkdirs();
+
+        writeCosmetics(new File(cosmeticsDir, "hats.yml"), "hat", size);
+        writeCosmetics(new File(cosmeticsDir, "backbling.yml"), "backbling", size);
+        writeCosmetics(new File(cosmeticsDir, "balloons.yml"), "balloon", size);
+
+        ConfigManager configManager = plugin.getConfigManager();
+        configManager.reloadAllConfigs();
+        return configManager;
+    }
+
+    /**
+     * @return The id of a generated cosmetic
+     */
+    static String cosmeticId(String type, int index) {
+        return type + "_" + index;
+    }
+
+    static void join(ServerMock server, PlayerMock player) {
+        server.getPluginManager().callEvent(new PlayerJoinEvent(player, (Component) null));
+    }
+
+    static void quit(ServerMock server, PlayerMock player) {
+        server.getPluginManager().callEvent(
+                new PlayerQuitEvent(player, (Component) null, PlayerQuitEvent.QuitReason.DISCONNECTED));
+    }
+
+    /**
+     * Equip a cosmetic the way players do, by right-clicking it
+     */
+    static void equip(ServerMock server, PlayerMock player, ConfigManager configManager, String type, int index) {
+        ItemStack item = ItemManager.getItemById(cosmeticId(type, index), configManager);
+        player.getInventory().setItemInMainHand(item);
+        server.getPluginManager().callEvent(
+                new PlayerInteractEvent(player, Action.RIGHT_CLICK_AIR, item, null, BlockFace.SELF));
+    }
+
+    private static void writeCosmetics(File file, String type, int size) {
+        YamlConfiguration config = new YamlConfiguration();
+        for (int i = 0; i < size; i++) {
+            // Shaped like the bundled examples: gradients, hover text and a custom model
+            String id = cosmeticId(type, i);
+            config.set(id + ".material", "LEATHER_HORSE_ARMOR");
+            config.set(id + ".name", "<gradient:#FF0000:#FF6B6B>Benchmark " + type + " " + i + "</gradient>");
+            config.set(id + ".lore", List.of(
+                    "<#FF6B6B>Generated for benchmarking",
+                    "<italic><gray>Number " + i,
+                    "<hover:show_text:'<red>Benchmark Collection'>Festive Item</hover>"));
+            config.set(id + ".item_model", "minecraft:item/custom/" + id);
+            config.set(id + ".permission", "guppycosmetics." + type + "." + i);
+        }
+
+        try {
+            config.save(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
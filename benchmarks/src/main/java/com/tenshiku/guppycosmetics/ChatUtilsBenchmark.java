@@ -0,0 +1,45 @@
+package com.tenshiku.guppycosmetics;
+
+import net.kyori.adventure.text.Component;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MiniMessage parsing of the kinds of strings found in messages.yml and the cosmetic catalogs.
+ * Runs for every message sent and every name and lore line of every item built.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChatUtilsBenchmark {
+    @Param({
+            "<gray>You equipped the <#8d9ac6>Red Balloon!",
+            "<gradient:#FF0000:#FF6B6B>Red Balloon</gradient>",
+            "<rainbow>Rainbow Balloon Bundle</rainbow>",
+            "<hover:show_text:'<red>Party Collection'>Festive Item</hover>"
+    })
+    public String message;
+
+    @Benchmark
+    public Component format() {
+        return ChatUtils.format(message);
+    }
+
+    @Benchmark
+    public String formatToPlainText() {
+        return ChatUtils.formatToPlainText(message);
+    }
+}
@@ -0,0 +1,138 @@
+package com.tenshiku.guppycosmetics;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Entity;
+import org.mockbukkit.mockbukkit.MockBukkit;
+import org.mockbukkit.mockbukkit.ServerMock;
+import org.mockbukkit.mockbukkit.entity.PlayerMock;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filtering an explosion's block list so balloons survive it, the work a TNT cannon triggers
+ * many times per tick. Compares the balloon index lookup with the per-block entity search it replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExplosionBenchmark {
+    // Blocks destroyed by one explosion, a single TNT is around a hundred, a cannon's volley thousands
+    @Param({"100", "1000", "5000"})
+    public int blockCount;
+
+    // Players with a balloon standing in the blast, most explosions have none
+    @Param({"0", "4"})
+    public int balloonsNearby;
+
+    // Players with a balloon elsewhere in the world
+    private static final int BALLOONS_ELSEWHERE = 50;
+    private static final int CATALOG_SIZE = 10;
+    private static final int SETTLE_TICKS = 20;
+
+    // Same distance as EventListener
+    private static final double PROTECTION_RADIUS = 2;
+
+    private World world;
+    private BalloonSpatialIndex balloonIndex;
+    private CosmeticEntityRegistry entityRegistry;
+    private List<Block> blocks;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        GuppyCosmetics plugin = BenchmarkServer.start();
+        ServerMock server = MockBukkit.getMock();
+        ConfigManager configManager = BenchmarkServer.writeCatalog(plugin, CATALOG_SIZE);
+        world = server.addSimpleWorld("world");
+        balloonIndex = plugin.getBalloonIndex();
+        entityRegistry = plugin.getEntityRegistry();
+
+        // Blast centred on the origin, balloon owners spread around its middle
+        List<PlayerMock> players = new ArrayList<>();
+        for (int i = 0; i < balloonsNearby + BALLOONS_ELSEWHERE; i++) {
+            PlayerMock player = new PlayerMock(server, "Player" + i, new UUID(0, i));
+            server.addPlayer(player);
+            player.setOp(true);
+            double offset = i < balloonsNearby ? i * 2 : 1000 + i * 16;
+            player.teleport(new Location(world, offset, 60, offset));
+            BenchmarkServer.join(server, player);
+            players.add(player);
+        }
+
+        // Equip only after the join restore ran, then let the balloons spawn
+        server.getScheduler().performTicks(SETTLE_TICKS);
+        for (int i = 0; i < players.size(); i++) {
+            BenchmarkServer.equip(server, players.get(i), configManager, "balloon", i % CATALOG_SIZE);
+        }
+        server.getScheduler().performTicks(SETTLE_TICKS);
+
+        // A cube of blocks around the origin, roughly what a volley carves out of a wall
+        int side = (int) Math.ceil(Math.cbrt(blockCount));
+        blocks = new ArrayList<>(blockCount);
+        for (int i = 0; i < blockCount; i++) {
+            int x = i % side - side / 2;
+            int y = (i / side) % side + 60;
+            int z = i / (side * side) - side / 2;
+            blocks.add(world.getBlockAt(x, y, z));
+        }
+
+        // Both ways have to find the balloons in the blast, or the comparison means nothing. The counts can
+        // differ a little, the entity search matches hitboxes while the index uses positions
+        int indexed = blocks.size() - protectWithIndex().size();
+        int scanned = blocks.size() - protectWithEntityScan().size();
+        boolean expected = balloonsNearby > 0;
+        if ((indexed > 0) != expected || (scanned > 0) != expected) {
+            throw new IllegalStateException("Expected " + (expected ? "some" : "no") + " protected blocks, the index lookup kept "
+                    + indexed + " and the entity scan " + scanned);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkServer.stop();
+    }
+
+    @Benchmark
+    public List<Block> protectWithIndex() {
+        // Copied every time, the list is changed in place
+        List<Block> blockList = new ArrayList<>(blocks);
+        EventListener.protectBalloonBlocks(balloonIndex, world, blockList);
+        return blockList;
+    }
+
+    @Benchmark
+    public List<Block> protectWithEntityScan() {
+        // What onEntityExplode did before the index: search for cosmetics around every block
+        List<Block> blockList = new ArrayList<>(blocks);
+        blockList.removeIf(block -> {
+            for (Entity entity : block.getWorld().getNearbyEntities(block.getLocation(),
+                    PROTECTION_RADIUS, PROTECTION_RADIUS, PROTECTION_RADIUS)) {
+                if (entityRegistry.isCosmetic(entity)) {
+                    return true;
+                }
+            }
+            return false;
+        });
+        return blockList;
+    }
+}
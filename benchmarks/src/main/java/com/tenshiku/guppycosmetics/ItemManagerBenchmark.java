@@ -0,0 +1,90 @@
+package com.tenshiku.guppycosmetics;
+
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building cosmetic items from the catalog and the persistent data checks run on every click,
+ * inventory change and update loop validation
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ItemManagerBenchmark {
+    @Param({"20", "200", "1000"})
+    public int catalogSize;
+
+    private GuppyCosmetics plugin;
+    private ConfigManager configManager;
+    private String[] ids;
+    private ItemStack[] items;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        plugin = BenchmarkServer.start();
+        configManager = BenchmarkServer.writeCatalog(plugin, catalogSize);
+
+        // Cycle through every type so lookups that fall through to later configs are measured too
+        String[] types = {"hat", "backbling", "balloon"};
+        ids = new String[catalogSize * types.length];
+        for (int i = 0; i < catalogSize; i++) {
+            for (int t = 0; t < types.length; t++) {
+                ids[i * types.length + t] = BenchmarkServer.cosmeticId(types[t], i);
+            }
+        }
+
+        items = new ItemStack[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            items[i] = ItemManager.getItemById(ids[i], configManager);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkServer.stop();
+    }
+
+    private int nextIndex() {
+        int index = next;
+        next = index + 1 == ids.length ? 0 : index + 1;
+        return index;
+    }
+
+    @Benchmark
+    public ItemStack getItemById() {
+        return ItemManager.getItemById(ids[nextIndex()], configManager);
+    }
+
+    @Benchmark
+    public String getItemId() {
+        return ItemManager.getItemId(items[nextIndex()]);
+    }
+
+    @Benchmark
+    public boolean isHat() {
+        return ItemManager.isHat(items[nextIndex()], configManager);
+    }
+
+    @Benchmark
+    public boolean isBalloon() {
+        return ItemManager.isBalloon(items[nextIndex()], configManager);
+    }
+}
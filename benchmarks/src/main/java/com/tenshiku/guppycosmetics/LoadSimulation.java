@@ -0,0 +1,375 @@
+package com.tenshiku.guppycosmetics;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.mockbukkit.mockbukkit.MockBukkit;
+import org.mockbukkit.mockbukkit.ServerMock;
+import org.mockbukkit.mockbukkit.entity.PlayerMock;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+/**
+ * Runs the plugin on a MockBukkit server with hundreds of scripted players wearing balloons and backblings,
+ * and reports what each server tick cost. Used to plan capacity before events and to reproduce
+ * recreation storms, which show up as a spike in the recreated and spawned counts.
+ * Only the server ticks are measured, not the scripted movement, joins and quits in between.
+ *
+ * <p>Usage: {@code java -cp target/benchmarks.jar com.tenshiku.guppycosmetics.LoadSimulation
+ * [--players 300] [--ticks 6000] [--seed 1] [--save results.properties] [--baseline results.properties]}
+ */
+public final class LoadSimulation {
+    private static final int CATALOG_SIZE = 20;
+
+    // Every this many ticks teleporting players jump, world hoppers switch worlds and some players rejoin
+    private static final int TELEPORT_INTERVAL = 200;
+    private static final int WORLD_CHANGE_INTERVAL = 400;
+    private static final int REJOIN_INTERVAL = 600;
+    // Share of players quitting and joining again on each rejoin wave
+    private static final double REJOIN_FRACTION = 0.05;
+    // Players within this distance see each other's cosmetics, like the server's entity tracking range
+    private static final double TRACKING_RANGE = 48;
+    // Longer than the delayed join restore, so it is done before anything else happens
+    private static final int SETTLE_TICKS = 20;
+
+    // Keys of the saved results
+    private static final String AVG_MS = "tick.avg.ms";
+    private static final String P50_MS = "tick.p50.ms";
+    private static final String P99_MS = "tick.p99.ms";
+    private static final String MAX_MS = "tick.max.ms";
+    private static final String ALLOCATED_KB = "allocated.kb.per.tick";
+    private static final String ENTITIES = "entities";
+    private static final String UPDATE_ERRORS = "update.errors";
+
+    /**
+     * What a simulated player does every tick
+     */
+    private enum Behaviour {
+        WALKING,
+        IDLE,
+        TELEPORTING,
+        WORLD_HOPPING
+    }
+
+    /**
+     * MockBukkit doesn't track entities, so viewers are worked out by the simulation between ticks
+     */
+    private static final class TrackedPlayerMock extends PlayerMock {
+        Set<Player> trackedBy = Collections.emptySet();
+
+        TrackedPlayerMock(ServerMock server, String name, UUID uuid) {
+            super(server, name, uuid);
+        }
+
+        @Override
+        public Set<Player> getTrackedBy() {
+            return trackedBy;
+        }
+    }
+
+    private static final class SimulatedPlayer {
+        final TrackedPlayerMock player;
+        final Behaviour behaviour;
+        float yaw;
+
+        SimulatedPlayer(TrackedPlayerMock player, Behaviour behaviour, float yaw) {
+            this.player = player;
+            this.behaviour = behaviour;
+            this.yaw = yaw;
+        }
+    }
+
+    private LoadSimulation() {
+    }
+
+    public static void main(String[] args) {
+        int players = intArg(args, "--players", 300);
+        int ticks = intArg(args, "--ticks", 6000);
+        long seed = intArg(args, "--seed", 1);
+        String savePath = stringArg(args, "--save");
+        String baselinePath = stringArg(args, "--baseline");
+        SplittableRandom random = new SplittableRandom(seed);
+
+        ServerMock server = MockBukkit.mock();
+        World overworld = server.addSimpleWorld("world");
+        World otherWorld = server.addSimpleWorld("world_other");
+        GuppyCosmetics plugin = MockBukkit.load(GuppyCosmetics.class);
+        ConfigManager configManager = BenchmarkServer.writeCatalog(plugin, CATALOG_SIZE);
+        UpdateErrorCounter errors = new UpdateErrorCounter();
+        plugin.getLogger().addHandler(errors);
+
+        try {
+            List<SimulatedPlayer> simulated = new ArrayList<>(players);
+            Behaviour[] behaviours = Behaviour.values();
+            for (int i = 0; i < players; i++) {
+                TrackedPlayerMock player = new TrackedPlayerMock(server, "Player" + i, new UUID(seed, i));
+                server.addPlayer(player);
+                player.setOp(true);
+                player.teleport(new Location(overworld,
+                        random.nextDouble(-500, 500), 64, random.nextDouble(-500, 500)));
+
+                SimulatedPlayer sim = new SimulatedPlayer(player, behaviours[i % behaviours.length],
+                        (float) random.nextDouble(-180, 180));
+                simulated.add(sim);
+
+                BenchmarkServer.join(server, player);
+            }
+
+            // Equip only after the join restore ran, or it would spawn a second set of cosmetics
+            server.getScheduler().performTicks(SETTLE_TICKS);
+            for (SimulatedPlayer sim : simulated) {
+                BenchmarkServer.equip(server, sim.player, configManager, "balloon", random.nextInt(CATALOG_SIZE));
+                BenchmarkServer.equip(server, sim.player, configManager, "backbling", random.nextInt(CATALOG_SIZE));
+            }
+
+            // Let the first spawns settle before measuring
+            updateViewers(simulated);
+            server.getScheduler().performTicks(SETTLE_TICKS);
+            errors.reset();
+
+            long[] tickNanos = new long[ticks];
+            long allocated = 0;
+            for (int tick = 1; tick <= ticks; tick++) {
+                for (SimulatedPlayer sim : simulated) {
+                    move(sim, tick, random, overworld, otherWorld);
+                }
+                if (tick % REJOIN_INTERVAL == 0) {
+                    for (SimulatedPlayer sim : simulated) {
+                        if (random.nextDouble() < REJOIN_FRACTION) {
+                            BenchmarkServer.quit(server, sim.player);
+                            BenchmarkServer.join(server, sim.player);
+                        }
+                    }
+                }
+
+                updateViewers(simulated);
+
+                long allocatedBefore = allocatedBytes();
+                long start = System.nanoTime();
+                server.getScheduler().performOneTick();
+                tickNanos[tick - 1] = System.nanoTime() - start;
+                allocated += allocatedBytes() - allocatedBefore;
+            }
+
+            Properties results = report(plugin, players, ticks, tickNanos, allocated, server, errors);
+            if (baselinePath != null) {
+                compare(results, loadResults(baselinePath));
+            }
+            if (savePath != null) {
+                saveResults(results, savePath);
+            }
+        } finally {
+            plugin.getLogger().removeHandler(errors);
+            MockBukkit.unmock();
+        }
+    }
+
+    private static void move(SimulatedPlayer sim, int tick, SplittableRandom random, World overworld, World otherWorld) {
+        PlayerMock player = sim.player;
+        Location location = player.getLocation();
+
+        switch (sim.behaviour) {
+            case WALKING:
+                // Wander about at walking speed, turning a little now and then
+                sim.yaw += (float) random.nextDouble(-5, 5);
+                double angle = Math.toRadians(sim.yaw);
+                location.add(-Math.sin(angle) * 0.2, 0, Math.cos(angle) * 0.2);
+                location.setYaw(sim.yaw);
+                player.setLocation(location);
+                break;
+            case IDLE:
+                break;
+            case TELEPORTING:
+                if (tick % TELEPORT_INTERVAL == 0) {
+                    location.add(random.nextDouble(-200, 200), 0, random.nextDouble(-200, 200));
+                    player.teleport(location);
+                }
+                break;
+            case WORLD_HOPPING:
+                if (tick % WORLD_CHANGE_INTERVAL == 0) {
+                    World target = location.getWorld() == overworld ? otherWorld : overworld;
+                    player.teleport(new Location(target, location.getX(), location.getY(), location.getZ()));
+                }
+                break;
+        }
+    }
+
+    /**
+     * Work out who sees whom, done outside the measured ticks
+     */
+    private static void updateViewers(List<SimulatedPlayer> simulated) {
+        double rangeSquared = TRACKING_RANGE * TRACKING_RANGE;
+        for (SimulatedPlayer sim : simulated) {
+            Location location = sim.player.getLocation();
+            Set<Player> viewers = new HashSet<>();
+            for (SimulatedPlayer other : simulated) {
+                if (other == sim) continue;
+                Location otherLocation = other.player.getLocation();
+                if (otherLocation.getWorld() == location.getWorld()
+                        && otherLocation.distanceSquared(location) <= rangeSquared) {
+                    viewers.add(other.player);
+                }
+            }
+            sim.player.trackedBy = viewers;
+        }
+    }
+
+    private static Properties report(GuppyCosmetics plugin, int players, int ticks, long[] tickNanos,
+                                     long allocated, ServerMock server, UpdateErrorCounter errors) {
+        long[] sorted = tickNanos.clone();
+        Arrays.sort(sorted);
+        long total = 0;
+        for (long nanos : sorted) {
+            total += nanos;
+        }
+
+        int entities = 0;
+        for (World world : server.getWorlds()) {
+            entities += world.getEntities().size();
+        }
+
+        Properties results = new Properties();
+        results.setProperty("players", String.valueOf(players));
+        results.setProperty("ticks", String.valueOf(ticks));
+        results.setProperty(AVG_MS, format(total / (double) ticks / 1_000_000.0));
+        results.setProperty(P50_MS, format(sorted[ticks / 2] / 1_000_000.0));
+        results.setProperty(P99_MS, format(sorted[Math.min(ticks - 1, (int) Math.ceil(ticks * 0.99) - 1)] / 1_000_000.0));
+        results.setProperty(MAX_MS, format(sorted[ticks - 1] / 1_000_000.0));
+        results.setProperty(ALLOCATED_KB, format(allocated / (double) ticks / 1024.0));
+        results.setProperty(ENTITIES, String.valueOf(entities));
+        results.setProperty(UPDATE_ERRORS, String.valueOf(errors.count));
+
+        System.out.println("Simulated " + players + " players for " + ticks + " ticks");
+        System.out.println("Tick cost: avg " + results.getProperty(AVG_MS) + " ms, p50 " + results.getProperty(P50_MS)
+                + " ms, p99 " + results.getProperty(P99_MS) + " ms, max " + results.getProperty(MAX_MS) + " ms");
+        System.out.println("Allocated on the tick thread: " + results.getProperty(ALLOCATED_KB) + " KB per tick");
+        System.out.println("Entities in the worlds: " + entities);
+        if (errors.count > 0) {
+            // Usually an entity method MockBukkit doesn't implement, the numbers above then include the recreations
+            System.out.println("Cosmetic update errors: " + errors.count + ", first: " + errors.first);
+        }
+        for (String line : plugin.getMetrics().report()) {
+            System.out.println(line);
+        }
+        return results;
+    }
+
+    /**
+     * Print how this run differs from an earlier one, for before and after comparisons
+     */
+    private static void compare(Properties results, Properties baseline) {
+        if (!results.getProperty("players").equals(baseline.getProperty("players"))
+                || !results.getProperty("ticks").equals(baseline.getProperty("ticks"))) {
+            System.out.println("Baseline was recorded with different --players or --ticks, the comparison is rough");
+        }
+        System.out.println("Compared to the baseline:");
+        for (String key : new String[]{AVG_MS, P50_MS, P99_MS, MAX_MS, ALLOCATED_KB, ENTITIES, UPDATE_ERRORS}) {
+            String before = baseline.getProperty(key);
+            if (before == null) continue;
+            double was = Double.parseDouble(before);
+            double now = Double.parseDouble(results.getProperty(key));
+            String change = was == 0 ? "" : String.format(Locale.ROOT, " (%+.1f%%)", (now - was) / was * 100);
+            System.out.println("  " + key + ": " + before + " -> " + results.getProperty(key) + change);
+        }
+    }
+
+    private static Properties loadResults(String path) {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(Paths.get(path))) {
+            properties.load(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return properties;
+    }
+
+    private static void saveResults(Properties results, String path) {
+        try (Writer writer = Files.newBufferedWriter(Paths.get(path))) {
+            results.store(writer, "LoadSimulation results");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        System.out.println("Saved results to " + path);
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+
+    /**
+     * Counts the warnings the managers log when updating a cosmetic fails
+     */
+    private static final class UpdateErrorCounter extends Handler {
+        int count;
+        String first;
+
+        @Override
+        public void publish(LogRecord record) {
+            String message = record.getMessage();
+            if (record.getLevel() != Level.WARNING || message == null || !message.startsWith("Error updating")) return;
+            if (count++ == 0) {
+                first = message;
+            }
+        }
+
+        void reset() {
+            count = 0;
+            first = null;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static long allocatedBytes() {
+        // Allocations of this thread, which also runs the server's scheduled tasks
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+
+    private static String stringArg(String[] args, String name) {
+        for (int i = 0; i < args.length - 1; i++) {
+            if (args[i].equals(name)) {
+                return args[i + 1];
+            }
+        }
+        return null;
+    }
+
+    private static int intArg(String[] args, String name, int defaultValue) {
+        for (int i = 0; i < args.length - 1; i++) {
+            if (args[i].equals(name)) {
+                return Integer.parseInt(args[i + 1]);
+            }
+        }
+        return defaultValue;
+    }
+}
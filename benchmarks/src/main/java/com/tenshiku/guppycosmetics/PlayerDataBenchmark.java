@@ -0,0 +1,89 @@
+package com.tenshiku.guppycosmetics;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saving and loading one player's cosmetics while the data folder already holds everyone else's,
+ * the work done on every quit, join and shutdown. Includes the hand-off to the storage thread.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PlayerDataBenchmark {
+    // Players already stored
+    @Param({"100", "1000", "10000"})
+    public int storedPlayers;
+
+    private static final int CATALOG_SIZE = 50;
+
+    private ConfigManager configManager;
+    private PlayerDataStore store;
+    private UUID playerId;
+    private PlayerDataStore.PlayerCosmetics cosmetics;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        GuppyCosmetics plugin = BenchmarkServer.start();
+        configManager = BenchmarkServer.writeCatalog(plugin, CATALOG_SIZE);
+        store = new PlayerDataStore(plugin, configManager, plugin.getMetrics());
+
+        // Fill the data folder the way it looks after a season of players equipping things
+        for (int i = 0; i < storedPlayers; i++) {
+            store.save(UUID.randomUUID(), new PlayerDataStore.PlayerCosmetics(
+                    BenchmarkServer.cosmeticId("backbling", i % CATALOG_SIZE),
+                    BenchmarkServer.cosmeticId("balloon", i % CATALOG_SIZE)));
+        }
+        store.flush().join();
+
+        playerId = UUID.randomUUID();
+        cosmetics = new PlayerDataStore.PlayerCosmetics(
+                BenchmarkServer.cosmeticId("backbling", 0), BenchmarkServer.cosmeticId("balloon", 0));
+        store.save(playerId, cosmetics);
+        store.flush().join();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        store.shutdown();
+        BenchmarkServer.stop();
+    }
+
+    @Benchmark
+    public void save() {
+        // Queue and write right away, the cost of one player in a flushed batch
+        store.save(playerId, cosmetics);
+        store.flush().join();
+    }
+
+    @Benchmark
+    public PlayerDataStore.PlayerCosmetics load() {
+        return store.load(playerId).join();
+    }
+
+    @Benchmark
+    public void loadAndRebuildItems(Blackhole blackhole) {
+        // What a join does: read the ids, then build the items from the cached templates
+        PlayerDataStore.PlayerCosmetics loaded = store.load(playerId).join();
+        blackhole.consume(ItemManager.getItemById(loaded.backblingId, configManager));
+        blackhole.consume(ItemManager.getItemById(loaded.balloonId, configManager));
+    }
+}
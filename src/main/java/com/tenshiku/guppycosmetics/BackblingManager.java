@@ -8,24 +8,56 @@ import org.bukkit.inventory.ItemStack;
 import org.bukkit.metadata.FixedMetadataValue;
 import org.bukkit.plugin.Plugin;
 import org.bukkit.util.Transformation;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class BackblingManager {
     private final Plugin plugin;
     private final ConfigManager configManager;
-    private final Map<UUID, ItemDisplay> activeBackblings;
-    private final Map<UUID, Location> lastPlayerLocations;
+    private final LodScheduler lodScheduler;
+    private final CosmeticScheduler scheduler;
+    private final CosmeticEntityRegistry entityRegistry;
+    private final CosmeticEntityPool entityPool;
+    private final CosmeticTickBudget tickBudget;
+    private final CosmeticMetrics metrics;
+    private final Map<UUID, BackblingState> backblings;
+    // Dense list of the same states, iterated by the update loop without copying the map.
+    // Unused on Folia, where every backbling is updated by its own task instead
+    private final List<BackblingState> backblingSlots;
 
-    public BackblingManager(Plugin plugin, ConfigManager configManager) {
+    // Incremented once per update task run
+    private long currentTick;
+    // Shards the update loop is spread over, chosen every tick; Folia tasks are already spread out
+    private int shards = 1;
+    // Next shard handed out to a new backbling
+    private int nextShard;
+    // Slot the update loop ran out of time at, where the next tick starts
+    private int resumeSlot = Integer.MAX_VALUE;
+
+    // Longest teleport duration clients accept for display entities
+    private static final int MAX_INTERPOLATION_TICKS = 59;
+
+    public BackblingManager(Plugin plugin, ConfigManager configManager, LodScheduler lodScheduler,
+                            CosmeticScheduler scheduler, CosmeticEntityRegistry entityRegistry,
+                            CosmeticEntityPool entityPool, CosmeticTickBudget tickBudget, CosmeticMetrics metrics) {
         this.plugin = plugin;
         this.configManager = configManager;
-        this.activeBackblings = new HashMap<>();
-        this.lastPlayerLocations = new HashMap<>();
+        this.lodScheduler = lodScheduler;
+        this.scheduler = scheduler;
+        this.entityRegistry = entityRegistry;
+        this.entityPool = entityPool;
+        this.tickBudget = tickBudget;
+        this.metrics = metrics;
+        this.backblings = new ConcurrentHashMap<>();
+        this.backblingSlots = new ArrayList<>();
 
-        // Start the single update task for all backblings
-        Bukkit.getScheduler().runTaskTimer(plugin, this::updateAllBackblings, 0L, 1L);
+        // Start the single update task for all backblings, on Folia each one gets its own task instead
+        if (!scheduler.isFolia()) {
+            scheduler.runGlobalTimer(this::updateAllBackblings, 0L, 1L);
+        }
     }
 
     public void createBackbling(Player player, ItemStack backblingItem) {
@@ -41,7 +73,8 @@ public class BackblingManager {
         double offsetZ = configManager.getBackblingConfig().getDouble(itemId + ".position.z", 0.2);
 
         // Create the display entity
-        ItemDisplay backbling = player.getWorld().spawn(player.getLocation(), ItemDisplay.class, (display) -> {
+        ItemDisplay backbling = entityPool.acquire(CosmeticEntityPool.Kind.BACKBLING, player.getLocation(),
+                ItemDisplay.class, (display) -> {
             display.setItemStack(backblingItem);
             display.setCustomName("Backbling:" + player.getUniqueId());
             display.setCustomNameVisible(false);
@@ -55,92 +88,266 @@ public class BackblingManager {
             display.setMetadata("itemId", new FixedMetadataValue(plugin, itemId));
         });
 
+        entityRegistry.register(backbling, player.getUniqueId());
+
         // Make the backbling ride the player
         player.addPassenger(backbling);
 
         // Store in our tracking map
-        activeBackblings.put(player.getUniqueId(), backbling);
-        lastPlayerLocations.put(player.getUniqueId(), player.getLocation());
+        CosmeticSession session = ((GuppyCosmetics)plugin).getCosmeticInventoryManager().getSession(player);
+        BackblingState state = new BackblingState(player, session, backbling);
+        state.recordLocation(player.getLocation());
+        long tick = scheduler.isFolia() ? state.ticks : currentTick;
+        state.lastUpdateTick = tick;
+        state.nextUpdateTick = tick + 1;
+        // Spawned with the default instant rotation, which is what a 1 tick interval wants
+        state.displayInterval = 1;
+        backblings.put(player.getUniqueId(), state);
+        addSlot(state);
     }
 
     public void removeBackbling(UUID uuid) {
-        lastPlayerLocations.remove(uuid);
+        BackblingState state = backblings.remove(uuid);
+        if (state == null) return;
+        removeSlot(state);
 
-        ItemDisplay backbling = activeBackblings.remove(uuid);
+        ItemDisplay backbling = state.backbling;
+        if (backbling != null) {
+            entityRegistry.unregister(backbling);
+        }
         if (backbling != null && backbling.isValid()) {
             Player player = Bukkit.getPlayer(uuid);
             if (player != null) {
-                player.removePassenger(backbling);
+                scheduler.execute(player, () -> player.removePassenger(backbling));
             }
-            backbling.remove();
+            entityPool.release(CosmeticEntityPool.Kind.BACKBLING, backbling);
+        }
+    }
+
+    private void addSlot(BackblingState state) {
+        if (scheduler.isFolia()) {
+            // Update on the owner's region, the task stops by itself once the player leaves
+            state.task = scheduler.runTimer(state.player, () -> tickBackbling(state), 1L, 1L);
+            return;
+        }
+        state.slot = backblingSlots.size();
+        state.shard = nextShard++;
+        backblingSlots.add(state);
+    }
+
+    private void removeSlot(BackblingState state) {
+        if (state.task != null) {
+            state.task.cancel();
+            state.task = null;
+        }
+
+        int slot = state.slot;
+        if (slot < 0) return;
+
+        // Swap the last state into the freed slot to keep the list dense
+        BackblingState last = backblingSlots.remove(backblingSlots.size() - 1);
+        if (last != state) {
+            backblingSlots.set(slot, last);
+            last.slot = slot;
         }
+        state.slot = -1;
     }
 
     private void updateAllBackblings() {
-        // Create a copy of the entries to avoid concurrent modification
-        new HashMap<>(activeBackblings).forEach((uuid, backbling) -> {
-            Player player = Bukkit.getPlayer(uuid);
+        long start = System.nanoTime();
+        long deadline = tickBudget.begin(start);
+        long tick = ++currentTick;
+        shards = lodScheduler.shardCount(backblingSlots.size());
 
-            // Remove invalid backblings or those whose players are offline
-            if (!backbling.isValid() || player == null || !player.isOnline()) {
-                removeBackbling(uuid);
-                return;
+        // Walk backwards so removals (swap with last) don't skip entries, starting where the
+        // previous tick ran out of time so the backblings it deferred go first
+        int count = backblingSlots.size();
+        int i = Math.min(resumeSlot, count - 1);
+        int deferred = 0;
+        int updated = 0;
+        resumeSlot = Integer.MAX_VALUE;
+        for (int visited = 0; visited < count; visited++, i--) {
+            if (i < 0) i = backblingSlots.size() - 1;
+            if (i >= backblingSlots.size()) continue;
+            BackblingState state = backblingSlots.get(i);
+
+            // Skip backblings the level of detail scheduler has slowed down
+            if (!lodScheduler.isDue(state, tick, state.ownerLocation)) continue;
+
+            if (CosmeticTickBudget.outOfTime(deadline, updated)) {
+                resumeSlot = i;
+                deferred = CosmeticTickBudget.countDue(backblingSlots, i, count - visited, tick);
+                break;
             }
+            updated++;
+
+            updateBackbling(state, tick);
+        }
+        tickBudget.end(start, deferred);
+        metrics.record(CosmeticMetrics.Timer.BACKBLING_TICK, start);
+    }
+
+    private void tickBackbling(BackblingState state) {
+        // Folia counterpart of the loop above, run on the owner's region with the backbling's own counter
+        long tick = ++state.ticks;
+        if (!lodScheduler.isDue(state, tick, state.ownerLocation)) return;
+
+        updateBackbling(state, tick);
+    }
+
+    private void updateBackbling(BackblingState state, long tick) {
+        try {
+            moveBackbling(state, tick);
+        } catch (Exception e) {
+            // One broken backbling shouldn't stop the others from updating
+            Player player = state.player;
+            plugin.getLogger().warning("Error updating backbling for player " + player.getName() + ": " + e.getMessage());
+            removeBackbling(state.ownerId);
+            scheduleRecreate(player, 5L);
+        }
+    }
+
+    private void moveBackbling(BackblingState state, long tick) {
+        UUID uuid = state.ownerId;
+        Player player = state.player;
+        ItemDisplay backbling = state.backbling;
+
+        // Remove invalid backblings or those whose players are offline
+        if (!backbling.isValid() || !player.isOnline()) {
+            removeBackbling(uuid);
+            return;
+        }
+
+        // Validate the backbling is still equipped in the cosmetic inventory
+        if (!state.session.hasBackbling()) {
+            removeBackbling(uuid);
+            return;
+        }
 
-            // Validate from cosmetic inventory instead of chestplate
-            ItemStack cosmeticBackbling = ((GuppyCosmetics)plugin).getCosmeticInventoryManager().getBackbling(player);
-            if (cosmeticBackbling == null || !ItemManager.isBackbling(cosmeticBackbling, configManager)) {
+        // Still on its way to the owner
+        if (state.relocating) return;
+
+        // Handle teleports or large movements
+        Location currentLoc = player.getLocation(state.ownerLocation);
+
+        // Check if player has teleported or moved significantly
+        boolean hasTeleported = currentLoc.getWorld() != state.lastWorld;
+        boolean hasMovedFar = state.distanceSquaredFromLast(currentLoc) > 100; // > 10 blocks
+        // On Folia the backbling can only be changed from its own region, left behind by a teleport
+        boolean isElsewhere = !scheduler.isOwnedByCurrentThread(backbling);
+
+        if (hasTeleported || hasMovedFar || isElsewhere) {
+            // Bring the backbling along, only recreating it if it can't be moved
+            if (!relocateBackbling(state, currentLoc)) {
                 removeBackbling(uuid);
+
+                // Use a slightly longer delay for stability
+                scheduleRecreate(player, 3L);
                 return;
             }
+            // Moving asynchronously on Folia, it is mounted again once it arrives
+            if (state.relocating) return;
+        }
 
-            // Handle teleports or large movements
-            Location currentLoc = player.getLocation();
-            Location lastLoc = lastPlayerLocations.get(uuid);
-
-            if (lastLoc != null) {
-                // Check if player has teleported or moved significantly
-                boolean hasTeleported = currentLoc.getWorld() != lastLoc.getWorld();
-                boolean hasMovedFar = currentLoc.distanceSquared(lastLoc) > 100; // > 10 blocks
-
-                if (hasTeleported || hasMovedFar) {
-                    // Always recreate the backbling on significant movements for proper attachment
-                    removeBackbling(uuid);
-
-                    // Use a slightly longer delay for stability
-                    Bukkit.getScheduler().runTaskLater(plugin, () -> {
-                        if (player.isOnline()) {
-                            ItemStack newBackbling = ((GuppyCosmetics)plugin).getCosmeticInventoryManager().getBackbling(player);
-                            if (newBackbling != null && ItemManager.isBackbling(newBackbling, configManager)) {
-                                createBackbling(player, newBackbling);
-                            }
-                        }
-                    }, 3L);
-                    return;
-                }
+        // Check if the entity is actually riding the player
+        // If not, put it back or recreate it (fixes stuck cosmetics)
+        if (!player.getPassengers().contains(backbling) && !relocateBackbling(state, currentLoc)) {
+            removeBackbling(uuid);
+            scheduleRecreate(player, 2L);
+            return;
+        }
+        if (state.relocating) return;
+
+        // Track how long the owner has been standing still
+        if (state.hasMovedSince(currentLoc)) {
+            state.idleTicks = 0;
+        } else {
+            state.idleTicks += tick - state.lastUpdateTick;
+        }
+
+        // Update backbling rotation, unless it turned too little to notice
+        float yaw = currentLoc.getYaw();
+        if (Float.isNaN(state.appliedYaw)
+                || Math.abs(Location.normalizeYaw(yaw - state.appliedYaw)) > configManager.getYawEpsilon()) {
+            backbling.setRotation(yaw, 0.0f);
+            state.appliedYaw = yaw;
+        }
+
+        // Store last location for next update
+        state.recordLocation(currentLoc);
+        lodScheduler.scheduleNext(state, tick, state.idleTicks * BalloonPhysics.TICK_SECONDS, shards);
+
+        // Let clients turn the backbling smoothly over the time until the next update
+        if (state.updateInterval != state.displayInterval) {
+            backbling.setTeleportDuration(Math.min(state.updateInterval, MAX_INTERPOLATION_TICKS));
+            state.displayInterval = state.updateInterval;
+        }
+    }
+
+    /**
+     * Move an existing backbling to its owner and mount it again, instead of spawning a new one
+     * @param location The owner's current location
+     * @return false if the backbling couldn't be moved and has to be recreated
+     */
+    private boolean relocateBackbling(BackblingState state, Location location) {
+        Player player = state.player;
+        ItemDisplay backbling = state.backbling;
+
+        // Teleporting the owner usually drops their passengers
+        if (!player.getPassengers().contains(backbling)) {
+            if (scheduler.isFolia()) {
+                // Only asynchronous teleports there, started from the backbling's own region
+                relocateBackblingAsync(state, location);
+                return true;
+            }
+            if (!backbling.teleport(location) || !backbling.isValid()
+                    || backbling.getWorld() != location.getWorld()) {
+                return false;
             }
+            if (!player.addPassenger(backbling)) return false;
+        }
 
-            // Check if the entity is actually riding the player
-            // If not, recreate it (fixes stuck cosmetics)
-            if (!player.getPassengers().contains(backbling)) {
-                removeBackbling(uuid);
-                Bukkit.getScheduler().runTaskLater(plugin, () -> {
-                    if (player.isOnline()) {
-                        ItemStack newBackbling = ((GuppyCosmetics)plugin).getCosmeticInventoryManager().getBackbling(player);
-                        if (newBackbling != null && ItemManager.isBackbling(newBackbling, configManager)) {
-                            createBackbling(player, newBackbling);
-                        }
-                    }
-                }, 2L);
+        state.recordLocation(location);
+        state.idleTicks = 0;
+        return true;
+    }
+
+    /**
+     * Folia counterpart of {@link #relocateBackbling}, the backbling may have been left in another region.
+     * It is moved from its own region and mounted again once it arrived, or recreated if it couldn't be moved.
+     */
+    private void relocateBackblingAsync(BackblingState state, Location location) {
+        Player player = state.player;
+        ItemDisplay backbling = state.backbling;
+        Location target = location.clone();
+        state.relocating = true;
+
+        scheduler.teleportFromOwner(backbling, target, () -> {}).thenAccept(moved -> scheduler.run(player, () -> {
+            state.relocating = false;
+            // Removed while moving
+            if (backblings.get(state.ownerId) != state) return;
+
+            if (!moved || !scheduler.isOwnedByCurrentThread(backbling) || !backbling.isValid()
+                    || backbling.getWorld() != target.getWorld() || !player.addPassenger(backbling)) {
+                removeBackbling(state.ownerId);
+                scheduleRecreate(player, 3L);
                 return;
             }
+            state.recordLocation(target);
+            state.idleTicks = 0;
+        }));
+    }
 
-            // Update backbling rotation
-            backbling.setRotation(currentLoc.getYaw(), 0.0f);
-
-            // Store last location for next update
-            lastPlayerLocations.put(uuid, currentLoc.clone());
-        });
+    private void scheduleRecreate(Player player, long delay) {
+        metrics.increment(CosmeticMetrics.Counter.RECREATIONS);
+        scheduler.runLater(player, () -> {
+            if (player.isOnline()) {
+                ItemStack newBackbling = ((GuppyCosmetics)plugin).getCosmeticInventoryManager().getBackbling(player);
+                if (newBackbling != null && ItemManager.isBackbling(newBackbling, configManager)) {
+                    createBackbling(player, newBackbling);
+                }
+            }
+        }, delay);
     }
 
     public void checkAndRestoreBackbling(Player player) {
@@ -152,9 +359,15 @@ public class BackblingManager {
 
     public void shutdown() {
         // Remove all backblings on plugin disable
-        new HashMap<>(activeBackblings).forEach((uuid, backbling) -> {
+        for (UUID uuid : backblings.keySet()) {
             removeBackbling(uuid);
-        });
-        lastPlayerLocations.clear();
+        }
+    }
+
+    /**
+     * @return Number of players with a backbling out
+     */
+    public int getActiveCount() {
+        return backblings.size();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,54 @@
+package com.tenshiku.guppycosmetics;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.ItemDisplay;
+import org.bukkit.entity.Player;
+
+/**
+ * Tracking data for a single active backbling.
+ */
+class BackblingState extends CosmeticState {
+    private static final double IDLE_THRESHOLD = 0.1;
+
+    final ItemDisplay backbling;
+
+    // Last known player position
+    World lastWorld;
+    double lastX;
+    double lastY;
+    double lastZ;
+    float lastYaw;
+
+    // Ticks the owner has spent without moving or turning
+    long idleTicks;
+
+    // Rotation last sent to clients, NaN before the first update
+    float appliedYaw = Float.NaN;
+
+    BackblingState(Player player, CosmeticSession session, ItemDisplay backbling) {
+        super(player, session);
+        this.backbling = backbling;
+    }
+
+    void recordLocation(Location location) {
+        lastWorld = location.getWorld();
+        lastX = location.getX();
+        lastY = location.getY();
+        lastZ = location.getZ();
+        lastYaw = location.getYaw();
+    }
+
+    double distanceSquaredFromLast(Location location) {
+        double dx = location.getX() - lastX;
+        double dy = location.getY() - lastY;
+        double dz = location.getZ() - lastZ;
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    @Override
+    boolean hasMovedSince(Location location) {
+        return distanceSquaredFromLast(location) > IDLE_THRESHOLD * IDLE_THRESHOLD
+                || location.getYaw() != lastYaw;
+    }
+}
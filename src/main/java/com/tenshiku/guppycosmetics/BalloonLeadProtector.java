@@ -7,7 +7,6 @@ import org.bukkit.event.player.PlayerInteractAtEntityEvent;
 import org.bukkit.event.player.PlayerUnleashEntityEvent;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.Chicken;
-import org.bukkit.entity.ArmorStand;
 import org.bukkit.event.hanging.HangingBreakEvent;
 import org.bukkit.event.hanging.HangingBreakByEntityEvent;
 import org.bukkit.entity.LeashHitch;
@@ -19,9 +18,13 @@ import org.bukkit.entity.Player;
 public class BalloonLeadProtector implements Listener {
 
     private final GuppyCosmetics plugin;
+    private final CosmeticEntityRegistry entityRegistry;
+    private final BalloonSpatialIndex balloonIndex;
 
     public BalloonLeadProtector(GuppyCosmetics plugin) {
         this.plugin = plugin;
+        this.entityRegistry = plugin.getEntityRegistry();
+        this.balloonIndex = plugin.getBalloonIndex();
     }
 
     /**
@@ -31,31 +34,17 @@ public class BalloonLeadProtector implements Listener {
     public void onPlayerInteractAtEntity(PlayerInteractAtEntityEvent event) {
         Entity entity = event.getRightClicked();
 
-        // Check if the entity is a balloon armorstand
-        if (entity instanceof ArmorStand && entity.getCustomName() != null &&
-                entity.getCustomName().startsWith("Balloon:")) {
-            event.setCancelled(true);
-            return;
-        }
-
-        // Check if the entity is a balloon anchor chicken
-        if (entity instanceof Chicken && entity.getCustomName() != null &&
-                entity.getCustomName().startsWith("BalloonAnchor:")) {
+        // Check if the entity belongs to a cosmetic (balloon, anchor chicken, lead or backbling)
+        if (entityRegistry.isCosmetic(entity)) {
             event.setCancelled(true);
             return;
         }
 
         // Also prevent interaction with lead hitches (if any)
         if (entity instanceof LeashHitch) {
-            // Get nearby entities to see if this might be connected to a balloon
-            for (Entity nearby : entity.getNearbyEntities(5, 5, 5)) {
-                if ((nearby instanceof Chicken && nearby.getCustomName() != null &&
-                        nearby.getCustomName().startsWith("BalloonAnchor:")) ||
-                        (nearby instanceof ArmorStand && nearby.getCustomName() != null &&
-                                nearby.getCustomName().startsWith("Balloon:"))) {
-                    event.setCancelled(true);
-                    return;
-                }
+            // Check whether a balloon is close enough for this to be its lead
+            if (balloonIndex.hasBalloonNear(entity.getLocation(), 5)) {
+                event.setCancelled(true);
             }
         }
     }
@@ -68,8 +57,7 @@ public class BalloonLeadProtector implements Listener {
         Entity entity = event.getEntity();
 
         // Check if this is our balloon anchor chicken
-        if (entity instanceof Chicken && entity.getCustomName() != null &&
-                entity.getCustomName().startsWith("BalloonAnchor:")) {
+        if (entity instanceof Chicken && entityRegistry.isCosmetic(entity)) {
             event.setCancelled(true);
             // Return false to prevent lead item from dropping
             event.setDropLeash(false);
@@ -85,16 +73,9 @@ public class BalloonLeadProtector implements Listener {
         if (event.getEntity() instanceof LeashHitch) {
             LeashHitch hitch = (LeashHitch) event.getEntity();
 
-            // Check if any nearby entities are balloon related
-            for (Entity nearby : hitch.getNearbyEntities(5, 5, 5)) {
-                if ((nearby instanceof Chicken && nearby.getCustomName() != null &&
-                        nearby.getCustomName().startsWith("BalloonAnchor:")) ||
-                        (nearby instanceof ArmorStand && nearby.getCustomName() != null &&
-                                nearby.getCustomName().startsWith("Balloon:"))) {
-
-                    event.setCancelled(true);
-                    return;
-                }
+            // Check if any balloon is close enough for this to be its lead
+            if (balloonIndex.hasBalloonNear(hitch.getLocation(), 5)) {
+                event.setCancelled(true);
             }
         }
     }
@@ -107,16 +88,9 @@ public class BalloonLeadProtector implements Listener {
         if (event.getEntity() instanceof LeashHitch) {
             LeashHitch hitch = (LeashHitch) event.getEntity();
 
-            // Check if any nearby entities are balloon related
-            for (Entity nearby : hitch.getNearbyEntities(5, 5, 5)) {
-                if ((nearby instanceof Chicken && nearby.getCustomName() != null &&
-                        nearby.getCustomName().startsWith("BalloonAnchor:")) ||
-                        (nearby instanceof ArmorStand && nearby.getCustomName() != null &&
-                                nearby.getCustomName().startsWith("Balloon:"))) {
-
-                    event.setCancelled(true);
-                    return;
-                }
+            // Check if any balloon is close enough for this to be its lead
+            if (balloonIndex.hasBalloonNear(hitch.getLocation(), 5)) {
+                event.setCancelled(true);
             }
         }
     }
@@ -2,51 +2,110 @@ package com.tenshiku.guppycosmetics;
 
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
+import org.bukkit.Material;
 import org.bukkit.entity.ArmorStand;
+import org.bukkit.entity.BlockDisplay;
+import org.bukkit.entity.ItemDisplay;
 import org.bukkit.entity.Player;
 import org.bukkit.entity.Chicken;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.metadata.FixedMetadataValue;
 import org.bukkit.plugin.Plugin;
 import org.bukkit.util.EulerAngle;
-import org.bukkit.util.Vector;
+import org.bukkit.util.Transformation;
 import org.bukkit.World;
 import org.bukkit.entity.Entity;
-import java.util.HashMap;
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class BalloonManager {
     private final Plugin plugin;
     private final ConfigManager configManager;
-    private final Map<UUID, ArmorStand> activeBalloons;
-    private final Map<UUID, Chicken> leadAnchors;
-    private final Map<UUID, Location> lastPlayerLocations;
-    private final Map<UUID, Double> idleTime;
-    private final Map<UUID, Double> bobPhase;
-    private final Map<UUID, Double> swayPhase;
-
-    private static final double BALLOON_HEIGHT = 2.5;
+    private final LodScheduler lodScheduler;
+    private final CosmeticScheduler scheduler;
+    private final CosmeticEntityRegistry entityRegistry;
+    private final BalloonSpatialIndex balloonIndex;
+    private final CosmeticEntityPool entityPool;
+    private final CosmeticTickBudget tickBudget;
+    private final CosmeticMetrics metrics;
+    private final Map<UUID, BalloonState> balloons;
+    // Dense list of the same states, iterated by the update loop without copying the map.
+    // Unused on Folia, where every balloon is updated by its own task instead
+    private final List<BalloonState> balloonSlots;
+
+    // Incremented once per update task run
+    private long currentTick;
+    // Shards the update loop is spread over, chosen every tick; Folia tasks are already spread out
+    private int shards = 1;
+    // Next shard handed out to a new balloon
+    private int nextShard;
+    // Slot the update loop ran out of time at, where the next tick starts
+    private int resumeSlot = Integer.MAX_VALUE;
+
+    // Balloons whose physics are being computed off the main thread, applied on the next tick
+    private final List<BalloonState> physicsBatch = new ArrayList<>();
+    private CompletableFuture<Void> pendingPhysics;
+    // Created on first use, so servers that never enable async physics don't start any threads
+    private BalloonPhysicsPool physicsPool;
+
+    private static final double BALLOON_HEIGHT = BalloonPhysics.BALLOON_HEIGHT;
     private static final double LEAD_HEIGHT = 1.8;
-    private static final double IDLE_THRESHOLD = 0.1;
-    private static final double BOB_SPEED = 2.0;
-    private static final double SWAY_SPEED = 1.5;
-    private static final double BOB_AMPLITUDE = 0.15;
-    private static final double SWAY_AMPLITUDE = 0.1;
-    private static final double FOLLOW_DISTANCE = 1.0; // Distance behind player
-
-    public BalloonManager(Plugin plugin, ConfigManager configManager) {
+    // Longest teleport duration clients accept for display entities
+    private static final int MAX_INTERPOLATION_TICKS = 59;
+    // Lead point above the balloon entity, and where the player holds a display lead
+    static final double LEAD_ANCHOR_OFFSET = 0.5;
+    private static final double LEAD_HOLD_HEIGHT = 1.0;
+    private static final float LEAD_THICKNESS = 0.05f;
+
+    /**
+     * How balloons are shown to players
+     */
+    public enum RenderMode {
+        // Invisible armor stand wearing the balloon, teleported on every update
+        ARMOR_STAND,
+        // Item display moved a few times a second, with clients interpolating in between
+        DISPLAY
+    }
+
+    /**
+     * How the lead between the player and their balloon is shown
+     */
+    public enum LeadMode {
+        // Real leash held by an invisible chicken riding along with the balloon
+        CHICKEN,
+        // Thin stretched block display, no living entity involved
+        DISPLAY,
+        // No lead at all
+        NONE
+    }
+
+    public BalloonManager(Plugin plugin, ConfigManager configManager, LodScheduler lodScheduler,
+                          CosmeticScheduler scheduler, CosmeticEntityRegistry entityRegistry,
+                          BalloonSpatialIndex balloonIndex, CosmeticEntityPool entityPool,
+                          CosmeticTickBudget tickBudget, CosmeticMetrics metrics) {
         this.plugin = plugin;
         this.configManager = configManager;
-        this.activeBalloons = new HashMap<>();
-        this.leadAnchors = new HashMap<>();
-        this.lastPlayerLocations = new HashMap<>();
-        this.idleTime = new HashMap<>();
-        this.bobPhase = new HashMap<>();
-        this.swayPhase = new HashMap<>();
-
-        // Start the update task
-        Bukkit.getScheduler().runTaskTimer(plugin, this::updateAllBalloons, 0L, 1L);
+        this.lodScheduler = lodScheduler;
+        this.scheduler = scheduler;
+        this.entityRegistry = entityRegistry;
+        this.balloonIndex = balloonIndex;
+        this.entityPool = entityPool;
+        this.tickBudget = tickBudget;
+        this.metrics = metrics;
+        this.balloons = new ConcurrentHashMap<>();
+        this.balloonSlots = new ArrayList<>();
+
+        // Start the update task, on Folia each balloon gets its own task on its owner's region instead
+        if (!scheduler.isFolia()) {
+            scheduler.runGlobalTimer(this::updateAllBalloons, 0L, 1L);
+        }
 
         // Start the validation task
         validateAllBalloons();
@@ -54,27 +113,35 @@ public class BalloonManager {
 
     // Run this every few seconds to check if balloons are still valid
     public void validateAllBalloons() {
-        Bukkit.getScheduler().runTaskTimer(plugin, () -> {
-            new HashMap<>(activeBalloons).forEach((uuid, balloon) -> {
-                Player player = Bukkit.getPlayer(uuid);
-
-                // If the player is online but the balloon is invalid or missing
-                if (player != null && player.isOnline() &&
-                        (!balloon.isValid() || balloon.isDead())) {
-                    // Remove the invalid balloon
-                    removeBalloon(uuid);
-
-                    // Check if they still have the balloon item in their custom inventory
-                    ItemStack balloonItem = ((GuppyCosmetics)plugin).getCosmeticInventoryManager().getBalloon(player);
-                    if (balloonItem != null && ItemManager.isBalloon(balloonItem, configManager)) {
-                        // Recreate the balloon
-                        createBalloon(player, balloonItem);
-                    }
-                }
-            });
+        scheduler.runGlobalTimer(() -> {
+            for (BalloonState state : balloons.values()) {
+                // Check each balloon on its owner's thread
+                scheduler.execute(state.player, () -> validateBalloon(state));
+            }
         }, 100L, 100L); // Run every 5 seconds (100 ticks)
     }
 
+    private void validateBalloon(BalloonState state) {
+        // Replaced or removed since the check was scheduled
+        if (balloons.get(state.ownerId) != state) return;
+
+        Player player = state.player;
+        Entity balloon = state.balloon;
+
+        // If the player is online but the balloon is invalid or missing
+        if (player.isOnline() && (!balloon.isValid() || balloon.isDead())) {
+            // Remove the invalid balloon
+            removeBalloon(state.ownerId);
+
+            // Check if they still have the balloon item in their custom inventory
+            ItemStack balloonItem = ((GuppyCosmetics)plugin).getCosmeticInventoryManager().getBalloon(player);
+            if (balloonItem != null && ItemManager.isBalloon(balloonItem, configManager)) {
+                // Recreate the balloon
+                createBalloon(player, balloonItem);
+            }
+        }
+    }
+
     /**
      * Enhanced cleanup method to make sure all lead-related entities are removed
      */
@@ -97,56 +164,112 @@ public class BalloonManager {
     }
 
     private void removeBalloonEntity(UUID uuid) {
+        BalloonState state = balloons.remove(uuid);
+
+        // Only real leashes can leave lead items or hitches behind
         Player player = Bukkit.getPlayer(uuid);
-        if (player != null) {
-            cleanupOldLeads(player.getWorld(), player.getLocation());
+        if (player != null && (state == null || state.leadAnchor != null)) {
+            scheduler.execute(player, () -> cleanupOldLeads(player.getWorld(), player.getLocation()));
+        }
+
+        if (state == null) return;
+        releaseEntities(state);
+    }
+
+    /**
+     * Stop updating a balloon and hand back or remove every entity it is made of
+     */
+    private void releaseEntities(BalloonState state) {
+        removeSlot(state);
+        balloonIndex.remove(state);
+
+        // Remove display lead
+        BlockDisplay leadString = state.leadString;
+        if (leadString != null) {
+            entityRegistry.unregister(leadString);
+            if (leadString.isValid()) {
+                entityPool.release(CosmeticEntityPool.Kind.LEAD_STRING, leadString);
+            }
         }
 
         // Remove lead anchor
-        Chicken leadAnchor = leadAnchors.remove(uuid);
-        if (leadAnchor != null && leadAnchor.isValid()) {
-            leadAnchor.setLeashHolder(null);
-            leadAnchor.remove();
+        Chicken leadAnchor = state.leadAnchor;
+        if (leadAnchor != null) {
+            entityRegistry.unregister(leadAnchor);
+            if (leadAnchor.isValid()) {
+                scheduler.execute(leadAnchor, () -> {
+                    leadAnchor.setLeashHolder(null);
+                    entityPool.release(CosmeticEntityPool.Kind.LEAD_ANCHOR, leadAnchor);
+                });
+            }
         }
 
         // Remove balloon
-        ArmorStand balloon = activeBalloons.remove(uuid);
-        if (balloon != null && balloon.isValid()) {
-            balloon.remove();
+        Entity balloon = state.balloon;
+        if (balloon != null) {
+            entityRegistry.unregister(balloon);
+            if (balloon.isValid()) {
+                entityPool.release(poolKindOf(balloon), balloon);
+            }
         }
     }
 
-    private void cleanupExistingBalloonEntities(Player player) {
-        player.getWorld().getNearbyEntities(player.getLocation(), 10, 10, 10).forEach(entity -> {
-            if (entity instanceof ArmorStand) {
-                String customName = entity.getCustomName();
-                if (customName != null && customName.startsWith("Balloon:" + player.getUniqueId())) {
-                    entity.remove();
-                }
-            }
-        });
+    private static CosmeticEntityPool.Kind poolKindOf(Entity balloon) {
+        return balloon instanceof ItemDisplay
+                ? CosmeticEntityPool.Kind.BALLOON_DISPLAY
+                : CosmeticEntityPool.Kind.BALLOON_STAND;
+    }
+
+    private void addSlot(BalloonState state) {
+        if (scheduler.isFolia()) {
+            // Update on the owner's region, the task stops by itself once the player leaves
+            state.task = scheduler.runTimer(state.player, () -> tickBalloon(state), 1L, 1L);
+            return;
+        }
+        state.slot = balloonSlots.size();
+        state.shard = nextShard++;
+        balloonSlots.add(state);
+    }
+
+    private void removeSlot(BalloonState state) {
+        if (state.task != null) {
+            state.task.cancel();
+            state.task = null;
+        }
+
+        int slot = state.slot;
+        if (slot < 0) return;
+
+        // Swap the last state into the freed slot to keep the list dense
+        BalloonState last = balloonSlots.remove(balloonSlots.size() - 1);
+        if (last != state) {
+            balloonSlots.set(slot, last);
+            last.slot = slot;
+        }
+        state.slot = -1;
     }
 
     /**
      * Enhanced createLeadAnchor method with additional protections against interaction
      */
-    private void createLeadAnchor(Player player, ArmorStand balloon) {
-        if (!balloon.isValid()) return;
+    private Chicken createLeadAnchor(Player player, Entity balloon) {
+        if (!balloon.isValid()) return null;
 
         cleanupOldLeads(player.getWorld(), player.getLocation());
 
         // First, remove any existing lead anchor
-        Chicken existingAnchor = leadAnchors.get(player.getUniqueId());
-        if (existingAnchor != null && existingAnchor.isValid()) {
-            existingAnchor.setLeashHolder(null);
-            existingAnchor.remove();
+        BalloonState existing = balloons.get(player.getUniqueId());
+        if (existing != null && existing.leadAnchor != null && existing.leadAnchor.isValid()) {
+            entityRegistry.unregister(existing.leadAnchor);
+            existing.leadAnchor.setLeashHolder(null);
+            entityPool.release(CosmeticEntityPool.Kind.LEAD_ANCHOR, existing.leadAnchor);
         }
 
         // Calculate offset position for lead anchor starting at player location
-        Location anchorLoc = balloon.getLocation().clone().add(0, 0.5, 0);
+        Location anchorLoc = balloon.getLocation().clone().add(0, LEAD_ANCHOR_OFFSET, 0);
 
         // Create new lead anchor with enhanced properties to prevent interaction
-        Chicken leadAnchor = player.getWorld().spawn(anchorLoc, Chicken.class, chicken -> {
+        Chicken leadAnchor = entityPool.acquire(CosmeticEntityPool.Kind.LEAD_ANCHOR, anchorLoc, Chicken.class, chicken -> {
             chicken.setInvulnerable(true);
             chicken.setInvisible(true);
             chicken.setSilent(true);
@@ -159,8 +282,9 @@ public class BalloonManager {
             chicken.setCustomName("BalloonAnchor:" + player.getUniqueId());
             chicken.setCustomNameVisible(false);
 
-            // Set persistence to avoid despawning
-            chicken.setPersistent(true);
+            // Never despawn, and never get saved with the chunk either
+            chicken.setRemoveWhenFarAway(false);
+            chicken.setPersistent(false);
 
             // Apply metadata for interaction handling
             chicken.setMetadata("guppycosmetics_balloon_anchor",
@@ -171,12 +295,13 @@ public class BalloonManager {
         });
 
         if (!leadAnchor.isValid()) {
-            balloon.remove();
-            return;
+            entityRegistry.unregister(balloon);
+            entityPool.release(poolKindOf(balloon), balloon);
+            return null;
         }
 
-        // Store reference
-        leadAnchors.put(player.getUniqueId(), leadAnchor);
+        entityRegistry.register(leadAnchor, player.getUniqueId());
+        return leadAnchor;
     }
 
     public void createBalloon(Player player, ItemStack balloonItem) {
@@ -189,8 +314,104 @@ public class BalloonManager {
         // Calculate spawn location with offset above the player
         Location spawnLoc = player.getLocation().add(0, BALLOON_HEIGHT, 0);
 
+        Entity balloon = configManager.getBalloonRenderMode() == RenderMode.DISPLAY
+                ? spawnBalloonDisplay(player, spawnLoc, balloonItem, itemId)
+                : spawnBalloonStand(player, spawnLoc, balloonItem, itemId);
+        entityRegistry.register(balloon, player.getUniqueId());
+
+        // Create lead anchor with delay to ensure proper sequencing
+        scheduler.runLater(player, () -> {
+            Chicken leadAnchor = null;
+            BlockDisplay leadString = null;
+            switch (configManager.getBalloonLeadMode()) {
+                case CHICKEN:
+                    leadAnchor = createLeadAnchor(player, balloon);
+                    if (leadAnchor == null) return;
+                    break;
+                case DISPLAY:
+                    if (!balloon.isValid()) {
+                        entityRegistry.unregister(balloon);
+                        return;
+                    }
+                    leadString = createLeadString(player, balloon);
+                    entityRegistry.register(leadString, player.getUniqueId());
+                    break;
+                case NONE:
+                    if (!balloon.isValid()) {
+                        entityRegistry.unregister(balloon);
+                        return;
+                    }
+                    break;
+            }
+
+            CosmeticSession session = ((GuppyCosmetics)plugin).getCosmeticInventoryManager().getSession(player);
+            BalloonState state = new BalloonState(player, session, balloon, leadAnchor, leadString);
+            Location location = player.getLocation();
+            state.lastWorld = location.getWorld();
+            state.motion.recordLast(location.getX(), location.getY(), location.getZ());
+            long tick = scheduler.isFolia() ? state.ticks : currentTick;
+            state.lastUpdateTick = tick;
+            state.nextUpdateTick = tick + 1;
+            if (balloon instanceof ItemDisplay) {
+                // Never update faster than clients are interpolating
+                state.minInterval = configManager.getBalloonDisplayUpdateInterval();
+            }
+            state.displayInterval = state.minInterval;
+
+            // Created twice within the delay, the balloon spawned first was never tracked to be removed
+            BalloonState previous = balloons.put(player.getUniqueId(), state);
+            if (previous != null) {
+                releaseEntities(previous);
+            }
+            addSlot(state);
+            balloonIndex.add(state, balloon.getLocation());
+        }, 2L);
+    }
+
+    /**
+     * Create a lead made of a thin block display stretched between the balloon and the player's hand.
+     * Unlike the chicken anchor it is not a living entity, so it costs almost nothing to tick.
+     */
+    private BlockDisplay createLeadString(Player player, Entity balloon) {
+        Location leadLoc = balloon.getLocation();
+        leadLoc.add(0, LEAD_ANCHOR_OFFSET, 0);
+        leadLoc.setYaw(0);
+        leadLoc.setPitch(0);
+        int interval = balloon instanceof ItemDisplay ? configManager.getBalloonDisplayUpdateInterval() : 1;
+
+        return entityPool.acquire(CosmeticEntityPool.Kind.LEAD_STRING, leadLoc, BlockDisplay.class, display -> {
+            display.setBlock(Material.BROWN_WOOL.createBlockData());
+            display.setTeleportDuration(interval);
+            display.setInterpolationDuration(interval);
+            applyLeadString(display, leadLoc, player.getLocation());
+            display.setCustomName("BalloonLead:" + player.getUniqueId());
+            display.setCustomNameVisible(false);
+            display.setMetadata("guppycosmetics_balloon_lead",
+                    new FixedMetadataValue(plugin, player.getUniqueId().toString()));
+        });
+    }
+
+    private void applyLeadString(BlockDisplay leadString, Location leadLoc, Location playerLoc) {
+        // Vector from the balloon's lead point to the player's hand
+        Vector3f direction = new Vector3f(
+                (float) (playerLoc.getX() - leadLoc.getX()),
+                (float) (playerLoc.getY() + LEAD_HOLD_HEIGHT - leadLoc.getY()),
+                (float) (playerLoc.getZ() - leadLoc.getZ()));
+        float length = direction.length();
+        if (length < 1.0E-4f) return;
+
+        // Stretch a unit cube along +Z, then turn it to point at the player, centred on the line
+        Quaternionf rotation = new Quaternionf().rotationTo(0, 0, 1, direction.x, direction.y, direction.z);
+        Vector3f offset = new Vector3f(-LEAD_THICKNESS / 2, -LEAD_THICKNESS / 2, 0).rotate(rotation);
+
+        leadString.setInterpolationDelay(0);
+        leadString.setTransformation(new Transformation(
+                offset, rotation, new Vector3f(LEAD_THICKNESS, LEAD_THICKNESS, length), new Quaternionf()));
+    }
+
+    private ArmorStand spawnBalloonStand(Player player, Location spawnLoc, ItemStack balloonItem, String itemId) {
         // Create balloon armorstand
-        ArmorStand balloon = player.getWorld().spawn(spawnLoc, ArmorStand.class, stand -> {
+        return entityPool.acquire(CosmeticEntityPool.Kind.BALLOON_STAND, spawnLoc, ArmorStand.class, stand -> {
             stand.setBasePlate(false);
             stand.setVisible(false);
             stand.setInvulnerable(true);
@@ -207,220 +428,502 @@ public class BalloonManager {
             stand.setMetadata("guppycosmetics_balloon",
                     new FixedMetadataValue(plugin, player.getUniqueId().toString()));
         });
+    }
 
-        // Create lead anchor with delay to ensure proper sequencing
-        Bukkit.getScheduler().runTaskLater(plugin, () -> {
-            createLeadAnchor(player, balloon);
-
-            activeBalloons.put(player.getUniqueId(), balloon);
-            lastPlayerLocations.put(player.getUniqueId(), player.getLocation());
-            idleTime.put(player.getUniqueId(), 0.0);
-            bobPhase.put(player.getUniqueId(), 0.0);
-            swayPhase.put(player.getUniqueId(), 0.0);
-        }, 2L);
+    private ItemDisplay spawnBalloonDisplay(Player player, Location spawnLoc, ItemStack balloonItem, String itemId) {
+        int interval = configManager.getBalloonDisplayUpdateInterval();
+        float height = (float) configManager.getBalloonDisplayHeightOffset();
+
+        // Create balloon item display, rendered like a helmet at the armor stand's head height
+        return entityPool.acquire(CosmeticEntityPool.Kind.BALLOON_DISPLAY, spawnLoc, ItemDisplay.class, display -> {
+            display.setItemStack(balloonItem);
+            display.setItemDisplayTransform(ItemDisplay.ItemDisplayTransform.HEAD);
+            display.setTransformation(new Transformation(
+                    new Vector3f(0, height, 0), new Quaternionf(), new Vector3f(1, 1, 1), new Quaternionf()));
+
+            // Let clients smooth out movement and tilt between our updates
+            display.setTeleportDuration(interval);
+            display.setInterpolationDuration(interval);
+            display.setInterpolationDelay(0);
+
+            display.setCustomName("Balloon:" + player.getUniqueId());
+            display.setCustomNameVisible(false);
+            display.setMetadata("itemId", new FixedMetadataValue(plugin, itemId));
+            // Add metadata to identify it as a cosmetic entity
+            display.setMetadata("guppycosmetics_balloon",
+                    new FixedMetadataValue(plugin, player.getUniqueId().toString()));
+        });
     }
 
     public void removeBalloon(UUID uuid) {
-        // Clean up tracking data
-        lastPlayerLocations.remove(uuid);
-        idleTime.remove(uuid);
-        bobPhase.remove(uuid);
-        swayPhase.remove(uuid);
-
         // Only remove balloon-related entities
         removeBalloonEntity(uuid);
     }
 
     private void updateAllBalloons() {
-        new HashMap<>(activeBalloons).forEach((uuid, balloon) -> {
-            Player player = Bukkit.getPlayer(uuid);
-            Chicken leadAnchor = leadAnchors.get(uuid);
-            Location lastLoc = lastPlayerLocations.get(uuid);
-
-            // Validate entities
-            if (!balloon.isValid() || player == null || !player.isOnline() ||
-                    leadAnchor == null || !leadAnchor.isValid()) {
-                removeBalloon(uuid);
-                return;
+        long start = System.nanoTime();
+        long deadline = tickBudget.begin(start);
+        long tick = ++currentTick;
+
+        // Apply what the workers computed from last tick's snapshot before taking a new one
+        if (pendingPhysics != null) {
+            applyPendingPhysics();
+        }
+        boolean asyncPhysics = configManager.isBalloonAsyncPhysics();
+        shards = lodScheduler.shardCount(balloonSlots.size());
+
+        // Walk backwards so removals (swap with last) don't skip entries, starting where the
+        // previous tick ran out of time so the balloons it deferred go first
+        int count = balloonSlots.size();
+        int i = Math.min(resumeSlot, count - 1);
+        int deferred = 0;
+        int updated = 0;
+        resumeSlot = Integer.MAX_VALUE;
+        for (int visited = 0; visited < count; visited++, i--) {
+            if (i < 0) i = balloonSlots.size() - 1;
+            if (i >= balloonSlots.size()) continue;
+            BalloonState state = balloonSlots.get(i);
+
+            // Skip balloons the level of detail scheduler has slowed down
+            if (!lodScheduler.isDue(state, tick, state.ownerLocation)) continue;
+
+            if (CosmeticTickBudget.outOfTime(deadline, updated)) {
+                resumeSlot = i;
+                deferred = CosmeticTickBudget.countDue(balloonSlots, i, count - visited, tick);
+                break;
             }
+            updated++;
 
-            // Validate item in cosmetic inventory
-            ItemStack cosmeticBalloon = ((GuppyCosmetics)plugin).getCosmeticInventoryManager().getBalloon(player);
-            if (cosmeticBalloon == null || !ItemManager.isBalloon(cosmeticBalloon, configManager)) {
-                removeBalloon(uuid);
-                return;
+            if (!asyncPhysics) {
+                updateBalloon(state, tick);
+                continue;
             }
 
-            Location currentLoc = player.getLocation();
+            // Only snapshot positions here, the physics run on the worker pool
+            if (!prepareBalloon(state)) continue;
+            try {
+                captureInput(state, tick);
+                physicsBatch.add(state);
+            } catch (Exception e) {
+                handleUpdateError(state, e);
+            }
+        }
 
-            // Handle teleports or large movements
-            if (lastLoc != null) {
-                // Check if player has teleported or moved significantly
-                boolean hasTeleported = currentLoc.getWorld() != lastLoc.getWorld();
-                boolean hasMovedFar = currentLoc.distanceSquared(lastLoc) > 100; // > 10 blocks
+        if (!physicsBatch.isEmpty()) {
+            if (physicsPool == null) {
+                physicsPool = new BalloonPhysicsPool(configManager.getBalloonPhysicsThreads());
+            }
+            pendingPhysics = physicsPool.stepAll(physicsBatch);
+        }
+        tickBudget.end(start, deferred);
+        metrics.record(CosmeticMetrics.Timer.BALLOON_TICK, start);
+    }
 
-                if (hasTeleported || hasMovedFar) {
-                    // Always recreate the balloon on teleports or significant movements
+    private void applyPendingPhysics() {
+        try {
+            // Normally finished long ago, only waits if the workers fell a whole tick behind
+            pendingPhysics.join();
+        } catch (CompletionException e) {
+            plugin.getLogger().warning("Error computing balloon physics: " + e.getCause());
+            physicsBatch.clear();
+            return;
+        } finally {
+            pendingPhysics = null;
+        }
+
+        for (int i = 0; i < physicsBatch.size(); i++) {
+            BalloonState state = physicsBatch.get(i);
+
+            // Removed while its physics were being computed
+            if (state.slot < 0) continue;
+
+            try {
+                applyBalloon(state);
+            } catch (Exception e) {
+                handleUpdateError(state, e);
+            }
+        }
+        physicsBatch.clear();
+    }
+
+    private void tickBalloon(BalloonState state) {
+        // Folia counterpart of the loop above, run on the owner's region with the balloon's own counter
+        long tick = ++state.ticks;
+        if (!lodScheduler.isDue(state, tick, state.ownerLocation)) return;
+
+        updateBalloon(state, tick);
+    }
+
+    private void updateBalloon(BalloonState state, long tick) {
+        if (!prepareBalloon(state)) return;
+
+        // Update balloon physics with improved movement and idle animations
+        try {
+            captureInput(state, tick);
+            state.step();
+            applyBalloon(state);
+        } catch (Exception e) {
+            handleUpdateError(state, e);
+        }
+    }
+
+    /**
+     * Validate a balloon before updating it, removing or recreating it if needed.
+     * Leaves the owner's current location in the state's scratch location.
+     * @return false if the balloon should not be updated
+     */
+    private boolean prepareBalloon(BalloonState state) {
+        UUID uuid = state.ownerId;
+        Player player = state.player;
+        Entity balloon = state.balloon;
+        Chicken leadAnchor = state.leadAnchor;
+        BlockDisplay leadString = state.leadString;
+
+        // Validate entities
+        if (!balloon.isValid() || !player.isOnline() ||
+                (leadAnchor != null && !leadAnchor.isValid()) ||
+                (leadString != null && !leadString.isValid())) {
+            removeBalloon(uuid);
+            return false;
+        }
+
+        // Validate the balloon is still equipped in the cosmetic inventory
+        if (!state.session.hasBalloon()) {
+            removeBalloon(uuid);
+            return false;
+        }
+
+        // Still on its way to the owner
+        if (state.relocating) return false;
+
+        Location currentLoc = player.getLocation(state.ownerLocation);
+        BalloonMotion motion = state.motion;
+
+        // Handle teleports or large movements
+        if (motion.hasLast) {
+            // Check if player has teleported or moved significantly
+            boolean hasTeleported = currentLoc.getWorld() != state.lastWorld;
+            boolean hasMovedFar = motion.distanceSquaredFromLast(
+                    currentLoc.getX(), currentLoc.getY(), currentLoc.getZ()) > 100; // > 10 blocks
+            // On Folia the balloon and its lead can only be changed from the region they are in,
+            // one that ended up in another region than the owner has to be brought over first
+            boolean isElsewhere = !scheduler.isOwnedByCurrentThread(balloon)
+                    || (leadAnchor != null && !scheduler.isOwnedByCurrentThread(leadAnchor))
+                    || (leadString != null && !scheduler.isOwnedByCurrentThread(leadString));
+
+            if (hasTeleported || hasMovedFar || isElsewhere) {
+                // Bring the balloon along, only recreating it if it can't be moved
+                if (!relocateBalloon(state, currentLoc)) {
                     removeBalloon(uuid);
 
                     // Use a slightly longer delay for stability
-                    Bukkit.getScheduler().runTaskLater(plugin, () -> {
-                        if (player.isOnline()) {
-                            ItemStack newBalloon = ((GuppyCosmetics)plugin).getCosmeticInventoryManager().getBalloon(player);
-                            if (newBalloon != null && ItemManager.isBalloon(newBalloon, configManager)) {
-                                createBalloon(player, newBalloon);
-                            }
-                        }
-                    }, 3L);
-                    return;
+                    scheduleRecreate(player, 3L);
                 }
+                return false;
             }
+        }
 
-            // CRITICAL FIX: Safely check if the lead is still attached
-            boolean isLeashed = false;
-            Entity leashHolder = null;
+        // Only chicken anchors hold a real leash that can break
+        return leadAnchor == null || checkLeash(state);
+    }
 
-            try {
-                // This is the part that's causing the exception - wrap it in a try-catch
-                if (leadAnchor.isLeashed()) {
-                    isLeashed = true;
-                    leashHolder = leadAnchor.getLeashHolder();
-                }
-            } catch (IllegalStateException e) {
-                // Lead has been broken - recreate the balloon
-                plugin.getLogger().info("Leash broken for " + player.getName() + "'s balloon - recreating");
-                isLeashed = false;
+    /**
+     * Move an existing balloon and its lead next to the owner, instead of spawning new ones
+     * @param location The owner's current location
+     * @return false if something couldn't be moved and the balloon has to be recreated
+     */
+    private boolean relocateBalloon(BalloonState state, Location location) {
+        if (scheduler.isFolia()) {
+            relocateBalloonAsync(state, location);
+            return true;
+        }
+
+        Player player = state.player;
+        Entity balloon = state.balloon;
+        Chicken leadAnchor = state.leadAnchor;
+        BlockDisplay leadString = state.leadString;
+        World world = location.getWorld();
+
+        // Put the balloon where a new one would spawn, the physics take over from there
+        Location target = state.balloonLocation;
+        target.setWorld(world);
+        target.set(location.getX(), location.getY() + BALLOON_HEIGHT, location.getZ());
+        target.setYaw(location.getYaw());
+        target.setPitch(0);
+
+        // Jump straight there instead of letting clients glide across the map
+        if (balloon instanceof ItemDisplay) {
+            ((ItemDisplay) balloon).setTeleportDuration(0);
+        }
+        if (!balloon.teleport(target) || !isIn(balloon, world)) return false;
+        state.recordApplied(target.getX(), target.getY(), target.getZ(), target.getYaw());
+        balloonIndex.move(state, target);
+
+        target.setY(target.getY() + LEAD_ANCHOR_OFFSET);
+        target.setYaw(0);
+        if (leadAnchor != null) {
+            // Let go of the leash while moving so it can't snap and drop a lead item
+            leadAnchor.setLeashHolder(null);
+            if (!leadAnchor.teleport(target) || !isIn(leadAnchor, world)) return false;
+            leadAnchor.setLeashHolder(player);
+        } else if (leadString != null) {
+            leadString.setTeleportDuration(0);
+            if (!leadString.teleport(target) || !isIn(leadString, world)) return false;
+            applyLeadString(leadString, target, location);
+            state.recordLeadHolder(location);
+        }
+
+        // Start the physics over at the new spot
+        state.motion.reset();
+        state.motion.recordLast(location.getX(), location.getY(), location.getZ());
+        state.lastWorld = world;
+        // Have the next update restore the interpolation durations
+        state.displayInterval = 0;
+        return true;
+    }
+
+    /**
+     * Folia counterpart of {@link #relocateBalloon}. Each entity is moved from its own region, which may
+     * not be the owner's, and the balloon isn't updated until all of them arrived.
+     * Recreates the balloon if any of them couldn't be moved.
+     */
+    private void relocateBalloonAsync(BalloonState state, Location location) {
+        Entity balloon = state.balloon;
+        Chicken leadAnchor = state.leadAnchor;
+        BlockDisplay leadString = state.leadString;
+
+        // Own locations, the teleports complete after the scratch ones are reused
+        Location holder = location.clone();
+        Location target = new Location(holder.getWorld(), holder.getX(), holder.getY() + BALLOON_HEIGHT, holder.getZ(),
+                holder.getYaw(), 0);
+        Location leadTarget = new Location(holder.getWorld(), target.getX(), target.getY() + LEAD_ANCHOR_OFFSET,
+                target.getZ());
+        state.relocating = true;
+
+        // Jump straight there instead of letting clients glide across the map
+        CompletableFuture<Boolean> moved = scheduler.teleportFromOwner(balloon, target, () -> {
+            if (balloon instanceof ItemDisplay) {
+                ((ItemDisplay) balloon).setTeleportDuration(0);
             }
+        });
+        if (leadAnchor != null) {
+            // Let go of the leash while moving so it can't snap and drop a lead item
+            moved = moved.thenCombine(scheduler.teleportFromOwner(leadAnchor, leadTarget,
+                    () -> leadAnchor.setLeashHolder(null)), Boolean::logicalAnd);
+        } else if (leadString != null) {
+            moved = moved.thenCombine(scheduler.teleportFromOwner(leadString, leadTarget,
+                    () -> leadString.setTeleportDuration(0)), Boolean::logicalAnd);
+        }
 
-            // Check for invalid leadholder relationship
-            if (!isLeashed || leashHolder == null || !leashHolder.equals(player)) {
-                // Try to fix the leash holder if possible
-                try {
-                    leadAnchor.setLeashHolder(player);
-                    plugin.getLogger().info("Reattached leash for " + player.getName() + "'s balloon");
-                } catch (Exception e) {
-                    // If we can't fix it, recreate the balloon completely
-                    plugin.getLogger().info("Could not reattach leash for " + player.getName() + "'s balloon - recreating");
-                    removeBalloon(uuid);
-                    Bukkit.getScheduler().runTaskLater(plugin, () -> {
-                        if (player.isOnline()) {
-                            ItemStack newBalloon = ((GuppyCosmetics)plugin).getCosmeticInventoryManager().getBalloon(player);
-                            if (newBalloon != null && ItemManager.isBalloon(newBalloon, configManager)) {
-                                createBalloon(player, newBalloon);
-                            }
-                        }
-                    }, 2L);
-                    return;
-                }
+        moved.thenAccept(success -> scheduler.run(state.player,
+                () -> finishRelocation(state, success, target, leadTarget, holder)));
+    }
+
+    private void finishRelocation(BalloonState state, boolean success, Location target, Location leadTarget,
+                                  Location holder) {
+        state.relocating = false;
+        // Removed while moving
+        if (balloons.get(state.ownerId) != state) return;
+
+        Player player = state.player;
+        Entity balloon = state.balloon;
+        Chicken leadAnchor = state.leadAnchor;
+        BlockDisplay leadString = state.leadString;
+        World world = holder.getWorld();
+
+        // Everything has to have arrived in the owner's region, or it can't be updated from here
+        boolean arrived = success
+                && scheduler.isOwnedByCurrentThread(balloon) && isIn(balloon, world)
+                && (leadAnchor == null || (scheduler.isOwnedByCurrentThread(leadAnchor) && isIn(leadAnchor, world)))
+                && (leadString == null || (scheduler.isOwnedByCurrentThread(leadString) && isIn(leadString, world)));
+        if (!arrived) {
+            removeBalloon(state.ownerId);
+            scheduleRecreate(player, 3L);
+            return;
+        }
+
+        state.recordApplied(target.getX(), target.getY(), target.getZ(), target.getYaw());
+        balloonIndex.move(state, target);
+        if (leadAnchor != null) {
+            leadAnchor.setLeashHolder(player);
+        } else if (leadString != null) {
+            applyLeadString(leadString, leadTarget, holder);
+            state.recordLeadHolder(holder);
+        }
+
+        // Start the physics over at the new spot
+        state.motion.reset();
+        state.motion.recordLast(holder.getX(), holder.getY(), holder.getZ());
+        state.lastWorld = world;
+        // Have the next update restore the interpolation durations
+        state.displayInterval = 0;
+    }
+
+    private static boolean isIn(Entity entity, World world) {
+        return entity.isValid() && entity.getWorld() == world;
+    }
+
+    private void captureInput(BalloonState state, long tick) {
+        Location currentLoc = state.ownerLocation;
+        Location balloonLoc = state.balloon.getLocation(state.balloonLocation);
+        state.capture(tick, (tick - state.lastUpdateTick) * BalloonPhysics.TICK_SECONDS,
+                currentLoc.getX(), currentLoc.getY(), currentLoc.getZ(), currentLoc.getYaw(),
+                balloonLoc.getX(), balloonLoc.getY(), balloonLoc.getZ());
+    }
+
+    /**
+     * Move the balloon and its lead to the targets computed by the last physics step
+     */
+    private void applyBalloon(BalloonState state) {
+        Entity balloon = state.balloon;
+        Chicken leadAnchor = state.leadAnchor;
+        BlockDisplay leadString = state.leadString;
+        BalloonMotion motion = state.motion;
+        Location currentLoc = state.ownerLocation;
+
+        // Apply the result, reusing the scratch location for both teleports
+        Location target = state.balloonLocation;
+        target.setWorld(currentLoc.getWorld());
+        target.set(motion.targetX, motion.targetY, motion.targetZ);
+        target.setYaw(motion.targetYaw);
+        target.setPitch(0);
+
+        // Every change sends packets to everyone tracking the balloon, skip the ones nobody would notice
+        boolean moved = state.hasMovedFromApplied(motion.targetX, motion.targetY, motion.targetZ, motion.targetYaw,
+                configManager.getPositionEpsilon(), configManager.getYawEpsilon());
+        boolean posed = state.hasPoseChanged(motion.headPoseX, motion.headPoseZ, configManager.getPoseEpsilon());
+
+        // Update balloon position and rotation
+        if (moved) {
+            scheduler.teleport(balloon, target);
+            state.recordApplied(motion.targetX, motion.targetY, motion.targetZ, motion.targetYaw);
+            balloonIndex.move(state, target);
+        }
+
+        if (posed) {
+            if (balloon instanceof ArmorStand) {
+                // Set head pose to match player direction, keeping Y rotation at 0 for forward orientation
+                ((ArmorStand) balloon).setHeadPose(new EulerAngle(motion.headPoseX, 0, motion.headPoseZ));
+            } else if (balloon instanceof ItemDisplay) {
+                applyDisplayTilt((ItemDisplay) balloon, motion);
             }
+            state.recordAppliedPose(motion.headPoseX, motion.headPoseZ);
+        }
 
-            // Continue with the rest of the balloon update logic
-            // Calculate player movement
-            double movement = lastLoc != null ? currentLoc.distance(lastLoc) : 0;
-            double currentIdleTime = idleTime.getOrDefault(uuid, 0.0);
+        target.setY(motion.targetY + LEAD_ANCHOR_OFFSET);
+        if (leadAnchor != null) {
+            // Update chicken position to sit on top of balloon
+            if (moved) {
+                scheduler.teleport(leadAnchor, target);
+            }
+        } else if (leadString != null) {
+            // Move the display lead with the balloon and re-aim it at the player
+            if (moved) {
+                target.setYaw(0);
+                scheduler.teleport(leadString, target);
+            }
+            if (moved || state.hasLeadHolderMoved(currentLoc, configManager.getPositionEpsilon())) {
+                applyLeadString(leadString, target, currentLoc);
+                state.recordLeadHolder(currentLoc);
+            }
+        }
 
-            // Update idle time based on movement
-            if (movement < IDLE_THRESHOLD) {
-                currentIdleTime += 0.05; // Increment idle time (50ms for 20 TPS)
-            } else {
-                currentIdleTime = 0;
+        // Update tracking data
+        state.lastWorld = currentLoc.getWorld();
+        lodScheduler.scheduleNext(state, state.inputTick,
+                state.updateStillTime(state.inputPlayerYaw, state.inputElapsed), shards);
+
+        // Stretch client interpolation over the time until the next update
+        if (state.updateInterval != state.displayInterval) {
+            int duration = Math.min(state.updateInterval, MAX_INTERPOLATION_TICKS);
+            if (balloon instanceof ItemDisplay) {
+                ((ItemDisplay) balloon).setTeleportDuration(duration);
+                ((ItemDisplay) balloon).setInterpolationDuration(duration);
+            }
+            if (leadString != null) {
+                leadString.setTeleportDuration(duration);
+                leadString.setInterpolationDuration(duration);
             }
-            idleTime.put(uuid, currentIdleTime);
+            state.displayInterval = state.updateInterval;
+        }
+    }
 
-            // Update bobbing and swaying phases
-            double currentBobPhase = bobPhase.getOrDefault(uuid, 0.0);
-            double currentSwayPhase = swayPhase.getOrDefault(uuid, 0.0);
-            currentBobPhase = (currentBobPhase + BOB_SPEED * 0.05) % (2 * Math.PI);
-            currentSwayPhase = (currentSwayPhase + SWAY_SPEED * 0.05) % (2 * Math.PI);
-            bobPhase.put(uuid, currentBobPhase);
-            swayPhase.put(uuid, currentSwayPhase);
+    private void handleUpdateError(BalloonState state, Exception e) {
+        Player player = state.player;
+        plugin.getLogger().warning("Error updating balloon for player " + player.getName() + ": " + e.getMessage());
+        cleanupOldLeads(player.getWorld(), player.getLocation());
+        removeBalloon(state.ownerId);
 
-            // Update balloon physics with improved movement and idle animations
-            try {
-                // Calculate idle animations
-                double idleFactor = Math.min(currentIdleTime, 2.0) / 2.0; // Smooth transition into idle animations
-                double bobOffset = idleFactor * BOB_AMPLITUDE * Math.sin(currentBobPhase);
-                double swayOffset = idleFactor * SWAY_AMPLITUDE * Math.sin(currentSwayPhase);
-
-                // Calculate base position behind player based on their yaw
-                double angle = Math.toRadians(currentLoc.getYaw());
-                Location targetLoc = currentLoc.clone();
-
-                // Position balloon behind player using -sin(yaw) for X and -cos(yaw) for Z
-                targetLoc.add(
-                        -Math.sin(angle) * FOLLOW_DISTANCE + (swayOffset * Math.cos(angle)),
-                        bobOffset,
-                        -Math.cos(angle) * FOLLOW_DISTANCE + (swayOffset * Math.sin(angle))
-                );
-
-                // Apply base height and positioning
-                targetLoc.add(0, BALLOON_HEIGHT, 0);
-
-                // Calculate balloon physics
-                Vector toPlayer = currentLoc.toVector().subtract(balloon.getLocation().toVector());
-                double distance = toPlayer.length();
-
-                if (distance > 0.1) {
-                    toPlayer.normalize().multiply(Math.min(distance * 0.3, 0.5));
-                    targetLoc.add(toPlayer);
-                }
+        // Try to recreate after error
+        scheduleRecreate(player, 5L);
+    }
 
-                // Calculate tilt based on movement and sway
-                double tiltZ = toPlayer.getZ() * 30.0 * -1.0;
-                double tiltX = toPlayer.getX() * 30.0 * -1.0;
-
-                // Add subtle tilt from swaying when idle
-                tiltX += idleFactor * 15.0 * Math.sin(currentSwayPhase);
-
-                EulerAngle tilt = new EulerAngle(
-                        Math.toRadians(tiltZ),
-                        Math.toRadians(currentLoc.getYaw()),
-                        Math.toRadians(tiltX)
-                );
-
-                // Always match player's rotation exactly
-                float playerYaw = currentLoc.getYaw();
-
-                // Update balloon position and rotation
-                balloon.teleport(targetLoc);
-                balloon.setRotation(playerYaw, 0);
-
-                // Set head pose to match player direction
-                EulerAngle headPose = new EulerAngle(
-                        Math.toRadians(tiltZ),
-                        0, // Keep Y rotation at 0 to maintain forward orientation
-                        Math.toRadians(tiltX)
-                );
-                balloon.setHeadPose(headPose);
-
-                // Update chicken position to sit on top of balloon
-                leadAnchor.teleport(targetLoc.clone().add(0, 0.5, 0));
-
-                // Check if balloon is too far and force teleport it closer
-                if (balloon.getLocation().distance(currentLoc) > 5.0) {
-                    balloon.teleport(currentLoc.clone().add(0, BALLOON_HEIGHT, 0));
-                    leadAnchor.teleport(balloon.getLocation().clone().add(0, 0.5, 0));
+    private void scheduleRecreate(Player player, long delay) {
+        metrics.increment(CosmeticMetrics.Counter.RECREATIONS);
+        scheduler.runLater(player, () -> {
+            if (player.isOnline()) {
+                ItemStack newBalloon = ((GuppyCosmetics)plugin).getCosmeticInventoryManager().getBalloon(player);
+                if (newBalloon != null && ItemManager.isBalloon(newBalloon, configManager)) {
+                    createBalloon(player, newBalloon);
                 }
+            }
+        }, delay);
+    }
 
-                // Update tracking data
-                lastPlayerLocations.put(uuid, currentLoc.clone());
+    /**
+     * Make sure the chicken anchor is still leashed to its owner, reattaching or recreating it if not
+     * @return false if the balloon had to be removed
+     */
+    private boolean checkLeash(BalloonState state) {
+        UUID uuid = state.ownerId;
+        Player player = state.player;
+        Chicken leadAnchor = state.leadAnchor;
+
+        // CRITICAL FIX: Safely check if the lead is still attached
+        boolean isLeashed = false;
+        Entity leashHolder = null;
+
+        try {
+            // This is the part that's causing the exception - wrap it in a try-catch
+            if (leadAnchor.isLeashed()) {
+                isLeashed = true;
+                leashHolder = leadAnchor.getLeashHolder();
+            }
+        } catch (IllegalStateException e) {
+            // Lead has been broken - recreate the balloon
+            plugin.getLogger().info("Leash broken for " + player.getName() + "'s balloon - recreating");
+            isLeashed = false;
+        }
 
+        // Check for invalid leadholder relationship
+        if (!isLeashed || leashHolder == null || !leashHolder.equals(player)) {
+            // Try to fix the leash holder if possible
+            try {
+                leadAnchor.setLeashHolder(player);
+                plugin.getLogger().info("Reattached leash for " + player.getName() + "'s balloon");
             } catch (Exception e) {
-                plugin.getLogger().warning("Error updating balloon for player " + player.getName() + ": " + e.getMessage());
-                cleanupOldLeads(player.getWorld(), player.getLocation());
+                // If we can't fix it, recreate the balloon completely
+                plugin.getLogger().info("Could not reattach leash for " + player.getName() + "'s balloon - recreating");
                 removeBalloon(uuid);
-
-                // Try to recreate after error
-                Bukkit.getScheduler().runTaskLater(plugin, () -> {
-                    if (player.isOnline()) {
-                        ItemStack newBalloon = ((GuppyCosmetics)plugin).getCosmeticInventoryManager().getBalloon(player);
-                        if (newBalloon != null && ItemManager.isBalloon(newBalloon, configManager)) {
-                            createBalloon(player, newBalloon);
-                        }
-                    }
-                }, 5L);
+                scheduleRecreate(player, 2L);
+                return false;
             }
-        });
+        }
+
+        return true;
+    }
+
+    private void applyDisplayTilt(ItemDisplay display, BalloonMotion motion) {
+        // Same tilt as the armor stand head pose; the stand renders its head flipped, hence the negated X
+        Quaternionf tilt = new Quaternionf()
+                .rotationZ((float) motion.headPoseZ)
+                .rotateX((float) -motion.headPoseX);
+        float height = (float) configManager.getBalloonDisplayHeightOffset();
+
+        // Restart interpolation from the current pose towards the new one
+        display.setInterpolationDelay(0);
+        display.setTransformation(new Transformation(
+                new Vector3f(0, height, 0), tilt, new Vector3f(1, 1, 1), new Quaternionf()));
     }
 
     public void checkAndRestoreBalloon(Player player) {
@@ -431,16 +934,23 @@ public class BalloonManager {
     }
 
     public void shutdown() {
-        new HashMap<>(activeBalloons).forEach((uuid, balloon) -> {
+        for (UUID uuid : balloons.keySet()) {
             removeBalloon(uuid);
-        });
-        lastPlayerLocations.clear();
-        idleTime.clear();
-        bobPhase.clear();
-        swayPhase.clear();
+        }
+
+        if (physicsPool != null) {
+            physicsPool.shutdown();
+        }
     }
 
     public boolean hasBalloon(UUID uuid) {
-        return activeBalloons.containsKey(uuid);
+        return balloons.containsKey(uuid);
+    }
+
+    /**
+     * @return Number of players with a balloon out
+     */
+    public int getActiveCount() {
+        return balloons.size();
     }
 }
\ No newline at end of file
@@ -0,0 +1,48 @@
+package com.tenshiku.guppycosmetics;
+
+/**
+ * Mutable, primitive-only physics state of a balloon.
+ * {@link BalloonPhysics} reads the inputs from here and writes its results back
+ * into the same object, so stepping a balloon allocates nothing.
+ */
+final class BalloonMotion {
+    // Last known player position
+    boolean hasLast;
+    double lastX;
+    double lastY;
+    double lastZ;
+
+    // Animation state
+    double idleTime;
+    double bobPhase;
+    double swayPhase;
+
+    // Results of the last step
+    double targetX;
+    double targetY;
+    double targetZ;
+    float targetYaw;
+    double headPoseX;
+    double headPoseZ;
+
+    void recordLast(double x, double y, double z) {
+        hasLast = true;
+        lastX = x;
+        lastY = y;
+        lastZ = z;
+    }
+
+    double distanceSquaredFromLast(double x, double y, double z) {
+        double dx = x - lastX;
+        double dy = y - lastY;
+        double dz = z - lastZ;
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    void reset() {
+        hasLast = false;
+        idleTime = 0;
+        bobPhase = 0;
+        swayPhase = 0;
+    }
+}
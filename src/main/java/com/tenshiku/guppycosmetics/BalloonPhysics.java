@@ -0,0 +1,108 @@
+package com.tenshiku.guppycosmetics;
+
+/**
+ * The balloon follow, idle bob/sway and tilt calculation.
+ * Has no server dependencies: everything goes in and out through primitives
+ * and a reusable {@link BalloonMotion}, so it can be tested and benchmarked on its own.
+ */
+final class BalloonPhysics {
+    static final double TICK_SECONDS = 0.05;
+    static final double BALLOON_HEIGHT = 2.5;
+    static final double IDLE_THRESHOLD = 0.1;
+    static final double BOB_SPEED = 2.0;
+    static final double SWAY_SPEED = 1.5;
+    static final double BOB_AMPLITUDE = 0.15;
+    static final double SWAY_AMPLITUDE = 0.1;
+    static final double FOLLOW_DISTANCE = 1.0; // Distance behind player
+    static final double MAX_DISTANCE = 5.0; // Snap back when the balloon drifts further than this
+
+    private static final double TWO_PI = 2 * Math.PI;
+
+    private BalloonPhysics() {
+    }
+
+    /**
+     * Advance a balloon by {@code dt} seconds.
+     * @param motion The balloon's state, updated in place with the new target position and head pose
+     * @param dt Elapsed time in seconds since the previous step
+     * @param playerX Current player X
+     * @param playerY Current player Y
+     * @param playerZ Current player Z
+     * @param playerYaw Current player yaw in degrees
+     * @param balloonX Current balloon X
+     * @param balloonY Current balloon Y
+     * @param balloonZ Current balloon Z
+     */
+    static void step(BalloonMotion motion, double dt,
+                     double playerX, double playerY, double playerZ, float playerYaw,
+                     double balloonX, double balloonY, double balloonZ) {
+        // Calculate player movement, scaled so the idle threshold stays per-tick
+        double movement = motion.hasLast
+                ? Math.sqrt(motion.distanceSquaredFromLast(playerX, playerY, playerZ))
+                : 0;
+
+        // Update idle time based on movement
+        if (movement < IDLE_THRESHOLD * (dt / TICK_SECONDS)) {
+            motion.idleTime += dt;
+        } else {
+            motion.idleTime = 0;
+        }
+
+        // Update bobbing and swaying phases
+        motion.bobPhase = (motion.bobPhase + BOB_SPEED * dt) % TWO_PI;
+        motion.swayPhase = (motion.swayPhase + SWAY_SPEED * dt) % TWO_PI;
+
+        // Calculate idle animations
+        double idleFactor = Math.min(motion.idleTime, 2.0) / 2.0; // Smooth transition into idle animations
+        double bobOffset = idleFactor * BOB_AMPLITUDE * Math.sin(motion.bobPhase);
+        double swaySin = Math.sin(motion.swayPhase);
+        double swayOffset = idleFactor * SWAY_AMPLITUDE * swaySin;
+
+        // Position balloon behind player using -sin(yaw) for X and -cos(yaw) for Z
+        double angle = Math.toRadians(playerYaw);
+        double sin = Math.sin(angle);
+        double cos = Math.cos(angle);
+        double targetX = playerX - sin * FOLLOW_DISTANCE + swayOffset * cos;
+        double targetY = playerY + bobOffset + BALLOON_HEIGHT;
+        double targetZ = playerZ - cos * FOLLOW_DISTANCE + swayOffset * sin;
+
+        // Pull the balloon towards the player
+        double toPlayerX = playerX - balloonX;
+        double toPlayerY = playerY - balloonY;
+        double toPlayerZ = playerZ - balloonZ;
+        double distance = Math.sqrt(toPlayerX * toPlayerX + toPlayerY * toPlayerY + toPlayerZ * toPlayerZ);
+
+        if (distance > 0.1) {
+            double scale = Math.min(distance * 0.3, 0.5) / distance;
+            toPlayerX *= scale;
+            toPlayerY *= scale;
+            toPlayerZ *= scale;
+            targetX += toPlayerX;
+            targetY += toPlayerY;
+            targetZ += toPlayerZ;
+        }
+
+        // Calculate tilt based on movement, plus subtle tilt from swaying when idle
+        double tiltZ = toPlayerZ * 30.0 * -1.0;
+        double tiltX = toPlayerX * 30.0 * -1.0 + idleFactor * 15.0 * swaySin;
+
+        // Snap back if the balloon would end up too far from the player
+        double dx = targetX - playerX;
+        double dy = targetY - playerY;
+        double dz = targetZ - playerZ;
+        if (dx * dx + dy * dy + dz * dz > MAX_DISTANCE * MAX_DISTANCE) {
+            targetX = playerX;
+            targetY = playerY + BALLOON_HEIGHT;
+            targetZ = playerZ;
+        }
+
+        motion.targetX = targetX;
+        motion.targetY = targetY;
+        motion.targetZ = targetZ;
+        motion.targetYaw = playerYaw; // Always match player's rotation exactly
+        motion.headPoseX = Math.toRadians(tiltZ);
+        motion.headPoseZ = Math.toRadians(tiltX);
+
+        motion.recordLast(playerX, playerY, playerZ);
+    }
+}
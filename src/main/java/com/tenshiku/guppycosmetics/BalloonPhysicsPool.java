@@ -0,0 +1,59 @@
+package com.tenshiku.guppycosmetics;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Worker threads stepping balloon physics off the main thread.
+ * A step only reads the balloon's captured input and writes its own motion,
+ * so balloons can be computed in any order and on any thread.
+ */
+final class BalloonPhysicsPool {
+    // Balloons per task, large enough that the hand-off costs less than the math
+    private static final int CHUNK_SIZE = 64;
+
+    private final ExecutorService executor;
+
+    /**
+     * @param threads Number of worker threads, 0 to pick one from the available cores
+     */
+    BalloonPhysicsPool(int threads) {
+        int count = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger index = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(count, runnable -> {
+            Thread thread = new Thread(runnable, "GuppyCosmetics Physics #" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Step every balloon in the list in parallel.
+     * The list must not be changed until the returned future completes.
+     * @param states Balloons with their input captured
+     * @return A future completing once all balloons have been stepped
+     */
+    CompletableFuture<Void> stepAll(List<BalloonState> states) {
+        int size = states.size();
+        CompletableFuture<?>[] chunks = new CompletableFuture<?>[(size + CHUNK_SIZE - 1) / CHUNK_SIZE];
+
+        for (int c = 0; c < chunks.length; c++) {
+            int from = c * CHUNK_SIZE;
+            int to = Math.min(from + CHUNK_SIZE, size);
+            chunks[c] = CompletableFuture.runAsync(() -> {
+                for (int i = from; i < to; i++) {
+                    states.get(i).step();
+                }
+            }, executor);
+        }
+
+        return CompletableFuture.allOf(chunks);
+    }
+
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,168 @@
+package com.tenshiku.guppycosmetics;
+
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Active balloons bucketed by world and chunk, kept up to date by {@link BalloonManager}.
+ * Answers "is there a balloon near here?" by looking at a few buckets instead of asking
+ * the world for nearby entities, for listeners that fire often and are rarely about balloons.
+ */
+public class BalloonSpatialIndex {
+    // World id to chunk key to the balloons in that chunk
+    private final Map<UUID, Map<Long, List<BalloonState>>> worlds = new ConcurrentHashMap<>();
+
+    /**
+     * Start tracking a balloon at its current position
+     */
+    void add(BalloonState state, Location location) {
+        state.indexedWorld = location.getWorld().getUID();
+        state.indexedChunk = chunkKey(location.getX(), location.getZ());
+        setPosition(state, location);
+        addToBucket(state);
+        state.indexed = true;
+    }
+
+    /**
+     * Update a balloon's position, moving it to another bucket if it left its chunk
+     */
+    void move(BalloonState state, Location location) {
+        if (!state.indexed) return;
+
+        UUID world = location.getWorld().getUID();
+        long chunk = chunkKey(location.getX(), location.getZ());
+        setPosition(state, location);
+        if (chunk == state.indexedChunk && world.equals(state.indexedWorld)) return;
+
+        removeFromBucket(state);
+        state.indexedWorld = world;
+        state.indexedChunk = chunk;
+        addToBucket(state);
+    }
+
+    /**
+     * Stop tracking a balloon
+     */
+    void remove(BalloonState state) {
+        if (!state.indexed) return;
+        state.indexed = false;
+        removeFromBucket(state);
+    }
+
+    /**
+     * Check for a balloon or its lead anchor within a box around a location
+     * @param location Centre of the box
+     * @param radius Half the box's size on every axis
+     * @return true if any balloon is inside the box
+     */
+    public boolean hasBalloonNear(Location location, double radius) {
+        Map<Long, List<BalloonState>> chunks = worlds.get(location.getWorld().getUID());
+        if (chunks == null || chunks.isEmpty()) return false;
+
+        double x = location.getX();
+        double y = location.getY();
+        double z = location.getZ();
+        int minChunkX = (int) Math.floor(x - radius) >> 4;
+        int maxChunkX = (int) Math.floor(x + radius) >> 4;
+        int minChunkZ = (int) Math.floor(z - radius) >> 4;
+        int maxChunkZ = (int) Math.floor(z + radius) >> 4;
+
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                List<BalloonState> bucket = chunks.get(Chunk.getChunkKey(chunkX, chunkZ));
+                if (bucket == null) continue;
+
+                for (BalloonState state : bucket) {
+                    if (isNear(state, x, y, z, radius)) return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Collect every balloon or lead anchor inside a box, to test many points against a few balloons
+     * @param world World to look in
+     * @return The balloons found, empty if there are none
+     */
+    List<BalloonState> balloonsWithin(World world, double minX, double minY, double minZ,
+                                      double maxX, double maxY, double maxZ) {
+        List<BalloonState> found = new ArrayList<>();
+        Map<Long, List<BalloonState>> chunks = worlds.get(world.getUID());
+        if (chunks == null || chunks.isEmpty()) return found;
+
+        int minChunkX = (int) Math.floor(minX) >> 4;
+        int maxChunkX = (int) Math.floor(maxX) >> 4;
+        int minChunkZ = (int) Math.floor(minZ) >> 4;
+        int maxChunkZ = (int) Math.floor(maxZ) >> 4;
+
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                List<BalloonState> bucket = chunks.get(Chunk.getChunkKey(chunkX, chunkZ));
+                if (bucket == null) continue;
+
+                for (BalloonState state : bucket) {
+                    if (state.indexedX >= minX && state.indexedX <= maxX
+                            && state.indexedZ >= minZ && state.indexedZ <= maxZ
+                            && state.indexedY + BalloonManager.LEAD_ANCHOR_OFFSET >= minY
+                            && state.indexedY <= maxY) {
+                        found.add(state);
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * @return true if the balloon or its lead anchor is within a box around the given point
+     */
+    static boolean isNear(BalloonState state, double x, double y, double z, double radius) {
+        if (Math.abs(state.indexedX - x) > radius || Math.abs(state.indexedZ - z) > radius) return false;
+
+        // The lead anchor sits a little above the balloon itself
+        double dy = y - state.indexedY;
+        return Math.abs(dy) <= radius || Math.abs(dy - BalloonManager.LEAD_ANCHOR_OFFSET) <= radius;
+    }
+
+    private static void setPosition(BalloonState state, Location location) {
+        state.indexedX = location.getX();
+        state.indexedY = location.getY();
+        state.indexedZ = location.getZ();
+    }
+
+    private void addToBucket(BalloonState state) {
+        // Add inside compute so a concurrent removal can't drop the bucket in between
+        worlds.computeIfAbsent(state.indexedWorld, id -> new ConcurrentHashMap<>())
+                .compute(state.indexedChunk, (key, bucket) -> {
+                    if (bucket == null) {
+                        bucket = new CopyOnWriteArrayList<>();
+                    }
+                    bucket.add(state);
+                    return bucket;
+                });
+    }
+
+    private void removeFromBucket(BalloonState state) {
+        Map<Long, List<BalloonState>> chunks = worlds.get(state.indexedWorld);
+        if (chunks == null) return;
+
+        // Drop empty buckets so chunks balloons have left don't pile up
+        chunks.computeIfPresent(state.indexedChunk, (key, bucket) -> {
+            bucket.remove(state);
+            return bucket.isEmpty() ? null : bucket;
+        });
+    }
+
+    private static long chunkKey(double x, double z) {
+        return Chunk.getChunkKey((int) Math.floor(x) >> 4, (int) Math.floor(z) >> 4);
+    }
+}
@@ -0,0 +1,149 @@
+package com.tenshiku.guppycosmetics;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.BlockDisplay;
+import org.bukkit.entity.Chicken;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+
+import java.util.UUID;
+
+/**
+ * Tracking data for a single active balloon.
+ * Keeps the entity references and the physics state together,
+ * so an update needs one lookup and never boxes a value.
+ */
+class BalloonState extends CosmeticState {
+    // Armor stand or item display, depending on the render mode it was spawned with
+    final Entity balloon;
+    // Lead entities, at most one of these is set depending on the lead mode
+    final Chicken leadAnchor;
+    final BlockDisplay leadString;
+    final BalloonMotion motion = new BalloonMotion();
+    // Reused to read the balloon's position and as the teleport target
+    final Location balloonLocation = new Location(null, 0, 0, 0);
+
+    // World the player was in at the last update
+    World lastWorld;
+
+    // Owner yaw at the last update and how long they have neither moved nor turned.
+    // The physics only counts movement, but an owner turning on the spot sees the balloon swing round
+    float lastYaw = Float.NaN;
+    double stillTime;
+
+    // What was last sent to clients, to skip updates too small to see
+    boolean hasApplied;
+    double appliedX, appliedY, appliedZ;
+    float appliedYaw;
+    boolean hasAppliedPose;
+    double appliedPoseX, appliedPoseZ;
+    // Where the player was when the display lead was last aimed at them
+    double leadHolderX, leadHolderY, leadHolderZ;
+
+    // Where the balloon is filed in the spatial index
+    boolean indexed;
+    UUID indexedWorld;
+    long indexedChunk;
+    double indexedX, indexedY, indexedZ;
+
+    // Positions captured on the owner's thread for the next physics step,
+    // so the step itself never touches the Bukkit API and can run on a worker thread
+    long inputTick;
+    double inputElapsed;
+    double inputPlayerX, inputPlayerY, inputPlayerZ;
+    float inputPlayerYaw;
+    double inputBalloonX, inputBalloonY, inputBalloonZ;
+
+    BalloonState(Player player, CosmeticSession session, Entity balloon, Chicken leadAnchor, BlockDisplay leadString) {
+        super(player, session);
+        this.balloon = balloon;
+        this.leadAnchor = leadAnchor;
+        this.leadString = leadString;
+    }
+
+    void capture(long tick, double elapsed, double playerX, double playerY, double playerZ, float playerYaw,
+                 double balloonX, double balloonY, double balloonZ) {
+        inputTick = tick;
+        inputElapsed = elapsed;
+        inputPlayerX = playerX;
+        inputPlayerY = playerY;
+        inputPlayerZ = playerZ;
+        inputPlayerYaw = playerYaw;
+        inputBalloonX = balloonX;
+        inputBalloonY = balloonY;
+        inputBalloonZ = balloonZ;
+    }
+
+    /**
+     * Run the physics on the captured input, writing the new targets to {@link #motion}
+     */
+    void step() {
+        BalloonPhysics.step(motion, inputElapsed,
+                inputPlayerX, inputPlayerY, inputPlayerZ, inputPlayerYaw,
+                inputBalloonX, inputBalloonY, inputBalloonZ);
+    }
+
+    boolean hasMovedFromApplied(double x, double y, double z, float yaw, double positionEpsilon, double yawEpsilon) {
+        if (!hasApplied) return true;
+        double dx = x - appliedX;
+        double dy = y - appliedY;
+        double dz = z - appliedZ;
+        return dx * dx + dy * dy + dz * dz > positionEpsilon * positionEpsilon
+                || Math.abs(Location.normalizeYaw(yaw - appliedYaw)) > yawEpsilon;
+    }
+
+    void recordApplied(double x, double y, double z, float yaw) {
+        hasApplied = true;
+        appliedX = x;
+        appliedY = y;
+        appliedZ = z;
+        appliedYaw = yaw;
+    }
+
+    boolean hasPoseChanged(double poseX, double poseZ, double epsilon) {
+        return !hasAppliedPose
+                || Math.abs(poseX - appliedPoseX) > epsilon
+                || Math.abs(poseZ - appliedPoseZ) > epsilon;
+    }
+
+    void recordAppliedPose(double poseX, double poseZ) {
+        hasAppliedPose = true;
+        appliedPoseX = poseX;
+        appliedPoseZ = poseZ;
+    }
+
+    boolean hasLeadHolderMoved(Location location, double epsilon) {
+        double dx = location.getX() - leadHolderX;
+        double dy = location.getY() - leadHolderY;
+        double dz = location.getZ() - leadHolderZ;
+        return dx * dx + dy * dy + dz * dz > epsilon * epsilon;
+    }
+
+    void recordLeadHolder(Location location) {
+        leadHolderX = location.getX();
+        leadHolderY = location.getY();
+        leadHolderZ = location.getZ();
+    }
+
+    @Override
+    boolean hasMovedSince(Location location) {
+        return motion.distanceSquaredFromLast(location.getX(), location.getY(), location.getZ())
+                > BalloonPhysics.IDLE_THRESHOLD * BalloonPhysics.IDLE_THRESHOLD
+                || location.getYaw() != lastYaw;
+    }
+
+    /**
+     * Update how long the owner has been still, counting turns as movement
+     * @return Seconds the owner has neither moved nor turned
+     */
+    double updateStillTime(float yaw, double elapsed) {
+        if (yaw != lastYaw) {
+            lastYaw = yaw;
+            stillTime = 0;
+        } else {
+            stillTime += elapsed;
+        }
+        return Math.min(motion.idleTime, stillTime);
+    }
+}
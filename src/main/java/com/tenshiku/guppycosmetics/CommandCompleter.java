@@ -26,6 +26,7 @@ public class CommandCompleter implements TabCompleter {
             if (sender.hasPermission("guppycosmetics.spawn")) completions.add("spawn");
             if (sender.hasPermission("guppycosmetics.give")) completions.add("give");
             if (sender.hasPermission("guppycosmetics.reload")) completions.add("reload");
+            if (sender.hasPermission("guppycosmetics.stats")) completions.add("stats");
             completions.add("cosmetics"); // Everyone can access cosmetics inventory
             completions.add("inventory"); // Alias for cosmetics
         }
@@ -44,6 +44,9 @@ public class CommandHandler implements CommandExecutor {
             case "inventory":
                 handleCosmeticInventory(sender);
                 break;
+            case "stats":
+                handleStats(sender);
+                break;
             default:
                 sendUsage(sender);
         }
@@ -122,56 +125,58 @@ public class CommandHandler implements CommandExecutor {
 
         // Special handling for hats with overlays
         if (type == CosmeticType.HAT && ItemManager.hasOverlayInConfig(itemId, configManager)) {
-            boolean success = ItemManager.giveHatWithOverlay(player, itemId, configManager);
-            if (success) {
-                // Send successful message
-                String itemName = configManager.getHatsConfig().getString(itemId + ".name", itemId);
-                String message = getPrefix() + configManager.getMessagesConfig().getString("item-given")
-                        .replace("{item}", ChatUtils.formatToPlainText(itemName))
-                        .replace("{player}", player.getName());
-                sender.sendMessage(ChatUtils.format(message));
-
-                // If this is a spawn command for the player themselves, offer to equip it
-                if (sender == player && args.length == 4 && args[3].equalsIgnoreCase("equip")) {
-                    // Use a delayed task to find and equip the newly created hat
-                    plugin.getServer().getScheduler().runTaskLater(plugin, () -> {
-                        // Save current helmet if needed
-                        ItemStack currentHelmet = player.getInventory().getHelmet();
-                        int hatSlot = -1;
-
-                        // Find the newly created hat in player's inventory
-                        for (int i = 0; i < player.getInventory().getContents().length; i++) {
-                            ItemStack item = player.getInventory().getContents()[i];
-                            if (item != null && item.hasItemMeta() &&
-                                    item.getItemMeta().getPersistentDataContainer().has(
-                                            new NamespacedKey(plugin, "item_id"), PersistentDataType.STRING) &&
-                                    itemId.equals(item.getItemMeta().getPersistentDataContainer().get(
-                                            new NamespacedKey(plugin, "item_id"), PersistentDataType.STRING))) {
-
-                                hatSlot = i;
-
-                                // Set the item as helmet and remove from inventory
-                                player.getInventory().setHelmet(item.clone());
-                                player.getInventory().removeItem(item);
-
-                                // If player was already wearing a helmet and we found the hat slot
-                                if (currentHelmet != null) {
-                                    // Put old helmet in the slot where the new hat was
-                                    player.getInventory().setItem(hatSlot, currentHelmet);
+            // Report once the hat has actually been given, the overlay fix-up runs a few ticks later
+            ItemManager.giveHatWithOverlay(player, itemId, configManager).thenAccept(success -> {
+                if (success) {
+                    // Send successful message
+                    String itemName = configManager.getHatsConfig().getString(itemId + ".name", itemId);
+                    String message = getPrefix() + configManager.getMessagesConfig().getString("item-given")
+                            .replace("{item}", ChatUtils.formatToPlainText(itemName))
+                            .replace("{player}", player.getName());
+                    sender.sendMessage(ChatUtils.format(message));
+
+                    // If this is a spawn command for the player themselves, offer to equip it
+                    if (sender == player && args.length == 4 && args[3].equalsIgnoreCase("equip")) {
+                        // Use a delayed task to find and equip the newly created hat
+                        plugin.getCosmeticScheduler().runLater(player, () -> {
+                            // Save current helmet if needed
+                            ItemStack currentHelmet = player.getInventory().getHelmet();
+                            int hatSlot = -1;
+
+                            // Find the newly created hat in player's inventory
+                            for (int i = 0; i < player.getInventory().getContents().length; i++) {
+                                ItemStack item = player.getInventory().getContents()[i];
+                                if (item != null && item.hasItemMeta() &&
+                                        item.getItemMeta().getPersistentDataContainer().has(
+                                                new NamespacedKey(plugin, "item_id"), PersistentDataType.STRING) &&
+                                        itemId.equals(item.getItemMeta().getPersistentDataContainer().get(
+                                                new NamespacedKey(plugin, "item_id"), PersistentDataType.STRING))) {
+
+                                    hatSlot = i;
+
+                                    // Set the item as helmet and remove from inventory
+                                    player.getInventory().setHelmet(item.clone());
+                                    player.getInventory().removeItem(item);
+
+                                    // If player was already wearing a helmet and we found the hat slot
+                                    if (currentHelmet != null) {
+                                        // Put old helmet in the slot where the new hat was
+                                        player.getInventory().setItem(hatSlot, currentHelmet);
+                                    }
+
+                                    // Send equipped message
+                                    String equippedMessage = getPrefix() + configManager.getMessagesConfig().getString("equipped-message")
+                                            .replace("{item}", getItemName(item));
+                                    player.sendMessage(ChatUtils.format(equippedMessage));
+                                    break;
                                 }
-
-                                // Send equipped message
-                                String equippedMessage = getPrefix() + configManager.getMessagesConfig().getString("equipped-message")
-                                        .replace("{item}", getItemName(item));
-                                player.sendMessage(ChatUtils.format(equippedMessage));
-                                break;
                             }
-                        }
-                    }, 5L); // Wait 5 ticks to ensure item is properly in inventory with updated metadata
+                        }, 5L); // Wait 5 ticks to ensure item is properly in inventory with updated metadata
+                    }
+                } else {
+                    sender.sendMessage(ChatUtils.format(getPrefix() + "Failed to create hat with overlay."));
                 }
-            } else {
-                sender.sendMessage(ChatUtils.format(getPrefix() + "Failed to create hat with overlay."));
-            }
+            });
             return;
         }
 
@@ -268,18 +273,27 @@ public class CommandHandler implements CommandExecutor {
             return;
         }
 
+        // The console and other players run commands off the target's region on Folia
+        plugin.getCosmeticScheduler().execute(target, () -> giveItem(sender, target, type, itemId));
+    }
+
+    /**
+     * Put a cosmetic in the target's inventory, on the thread owning the target
+     */
+    private void giveItem(CommandSender sender, Player target, CosmeticType type, String itemId) {
         // Special handling for hats with overlays
         if (type == CosmeticType.HAT && ItemManager.hasOverlayInConfig(itemId, configManager)) {
-            boolean success = ItemManager.giveHatWithOverlay(target, itemId, configManager);
-            if (success) {
-                String itemName = configManager.getHatsConfig().getString(itemId + ".name", itemId);
-                String message = getPrefix() + configManager.getMessagesConfig().getString("item-given")
-                        .replace("{item}", ChatUtils.formatToPlainText(itemName))
-                        .replace("{player}", target.getName());
-                sender.sendMessage(ChatUtils.format(message));
-            } else {
-                sender.sendMessage(ChatUtils.format(getPrefix() + "Failed to create hat with overlay."));
-            }
+            ItemManager.giveHatWithOverlay(target, itemId, configManager).thenAccept(success -> {
+                if (success) {
+                    String itemName = configManager.getHatsConfig().getString(itemId + ".name", itemId);
+                    String message = getPrefix() + configManager.getMessagesConfig().getString("item-given")
+                            .replace("{item}", ChatUtils.formatToPlainText(itemName))
+                            .replace("{player}", target.getName());
+                    sender.sendMessage(ChatUtils.format(message));
+                } else {
+                    sender.sendMessage(ChatUtils.format(getPrefix() + "Failed to create hat with overlay."));
+                }
+            });
             return;
         }
 
@@ -317,6 +331,19 @@ public class CommandHandler implements CommandExecutor {
         plugin.getCosmeticInventoryManager().openCosmeticInventory(player);
     }
 
+    private void handleStats(CommandSender sender) {
+        if (!sender.hasPermission("guppycosmetics.stats")) {
+            sender.sendMessage(ChatUtils.format(getPrefix() + configManager.getMessagesConfig().getString("no-permission")));
+            return;
+        }
+
+        sender.sendMessage(ChatUtils.format(getPrefix() + configManager.getMessagesConfig().getString("stats-title", "<gray>Performance since startup:")));
+        String lineFormat = configManager.getMessagesConfig().getString("stats-line", "<gray>{line}");
+        for (String line : plugin.getMetrics().report()) {
+            sender.sendMessage(ChatUtils.format(lineFormat.replace("{line}", line)));
+        }
+    }
+
     private String getItemName(ItemStack item) {
         if (item != null && item.hasItemMeta() && item.getItemMeta().hasDisplayName()) {
             return PlainTextComponentSerializer.plainText().serialize(item.getItemMeta().displayName());
@@ -338,6 +365,9 @@ public class CommandHandler implements CommandExecutor {
         if (sender.hasPermission("guppycosmetics.reload")) {
             sender.sendMessage(ChatUtils.format(configManager.getMessagesConfig().getString("reload-help")));
         }
+        if (sender.hasPermission("guppycosmetics.stats")) {
+            sender.sendMessage(ChatUtils.format(configManager.getMessagesConfig().getString("stats-help")));
+        }
         // Add help for cosmetics inventory command
         if (sender.hasPermission("guppycosmetics.cosmetics")) {
             sender.sendMessage(ChatUtils.format(configManager.getMessagesConfig().getString("cosmetics-help")));
@@ -4,15 +4,45 @@ import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 import java.io.File;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.logging.Level;
 
 public class ConfigManager {
     private final GuppyCosmetics plugin;
-    private File hatsFile, backblingFile, balloonsFile, messagesFile;
-    private FileConfiguration hatsConfig, backblingConfig, balloonsConfig, messagesConfig;
+    private File hatsFile, backblingFile, balloonsFile, messagesFile, mainFile;
+    private FileConfiguration hatsConfig, backblingConfig, balloonsConfig, messagesConfig, mainConfig;
+
+    // Settings read by the update loops, cached so they don't parse YAML paths every tick
+    private boolean lodEnabled;
+    private int lodFullInterval;
+    private int lodReducedInterval;
+    private int lodMinimalInterval;
+    private int lodViewerCheckInterval;
+    private double lodIdleSeconds;
+    private int lodShards;
+    private int lodShardTarget;
+    private int lodMaxShards;
+    private BalloonManager.RenderMode balloonRenderMode;
+    private int balloonDisplayUpdateInterval;
+    private double balloonDisplayHeightOffset;
+    private BalloonManager.LeadMode balloonLeadMode;
+    private boolean balloonAsyncPhysics;
+    private double positionEpsilon;
+    private double yawEpsilon;
+    private double poseEpsilon;
+    private boolean entityPoolEnabled;
+    private int entityPoolMaxSize;
+    private int entityPoolIdleSeconds;
+    private long tickBudgetNanos;
+    private int metricsDumpIntervalSeconds;
+    private boolean listenerMetricsEnabled;
+    private long storageFlushIntervalMillis;
+    private long storagePreloadTimeoutMillis;
+    private int balloonPhysicsThreads;
 
     public ConfigManager(GuppyCosmetics plugin) {
         this.plugin = plugin;
@@ -30,18 +60,82 @@ public class ConfigManager {
         backblingFile = new File(cosmeticsDir, "backbling.yml");
         balloonsFile = new File(cosmeticsDir, "balloons.yml");
         messagesFile = new File(plugin.getDataFolder(), "messages.yml");
+        mainFile = new File(plugin.getDataFolder(), "config.yml");
 
         // Save default configurations if they don't exist
         if (!hatsFile.exists()) saveResource("cosmetics/hats.yml", false);
         if (!backblingFile.exists()) saveResource("cosmetics/backbling.yml", false);
         if (!balloonsFile.exists()) saveResource("cosmetics/balloons.yml", false);
         if (!messagesFile.exists()) saveResource("messages.yml", false);
+        if (!mainFile.exists()) saveResource("config.yml", false);
 
         // Load configurations
         hatsConfig = YamlConfiguration.loadConfiguration(hatsFile);
         backblingConfig = YamlConfiguration.loadConfiguration(backblingFile);
         balloonsConfig = YamlConfiguration.loadConfiguration(balloonsFile);
         messagesConfig = YamlConfiguration.loadConfiguration(messagesFile);
+        mainConfig = YamlConfiguration.loadConfiguration(mainFile);
+
+        // Items built from the previous catalog may be out of date
+        ItemManager.clearTemplates();
+
+        // Fall back to the bundled values for settings missing from older config files
+        InputStream defaults = plugin.getResource("config.yml");
+        if (defaults != null) {
+            mainConfig.setDefaults(YamlConfiguration.loadConfiguration(
+                    new InputStreamReader(defaults, StandardCharsets.UTF_8)));
+        }
+
+        loadSettings();
+    }
+
+    private void loadSettings() {
+        lodEnabled = mainConfig.getBoolean("lod.enabled", true);
+        lodFullInterval = Math.max(1, mainConfig.getInt("lod.full-interval", 1));
+        lodReducedInterval = Math.max(lodFullInterval, mainConfig.getInt("lod.reduced-interval", 4));
+        lodMinimalInterval = Math.max(lodReducedInterval, mainConfig.getInt("lod.minimal-interval", 20));
+        lodViewerCheckInterval = Math.max(1, mainConfig.getInt("lod.viewer-check-interval", 5));
+        lodIdleSeconds = mainConfig.getDouble("lod.idle-seconds", 5.0);
+        lodShards = Math.max(0, mainConfig.getInt("lod.shards", 0));
+        lodShardTarget = Math.max(1, mainConfig.getInt("lod.shard-target", 100));
+        lodMaxShards = Math.max(1, mainConfig.getInt("lod.max-shards", 4));
+
+        String renderMode = mainConfig.getString("balloons.render-mode", "ARMOR_STAND");
+        try {
+            balloonRenderMode = BalloonManager.RenderMode.valueOf(renderMode.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            plugin.getLogger().warning("Unknown balloons.render-mode '" + renderMode + "', using ARMOR_STAND");
+            balloonRenderMode = BalloonManager.RenderMode.ARMOR_STAND;
+        }
+        balloonDisplayUpdateInterval = Math.max(1, Math.min(59, mainConfig.getInt("balloons.display-update-interval", 4)));
+        balloonDisplayHeightOffset = mainConfig.getDouble("balloons.display-height-offset", 1.6);
+
+        String leadMode = mainConfig.getString("balloons.lead-mode", "CHICKEN");
+        try {
+            balloonLeadMode = BalloonManager.LeadMode.valueOf(leadMode.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            plugin.getLogger().warning("Unknown balloons.lead-mode '" + leadMode + "', using CHICKEN");
+            balloonLeadMode = BalloonManager.LeadMode.CHICKEN;
+        }
+
+        balloonAsyncPhysics = mainConfig.getBoolean("balloons.async-physics", false);
+        balloonPhysicsThreads = Math.max(0, mainConfig.getInt("balloons.physics-threads", 0));
+
+        positionEpsilon = Math.max(0, mainConfig.getDouble("dirty-check.position", 0.01));
+        yawEpsilon = Math.max(0, mainConfig.getDouble("dirty-check.yaw", 1.0));
+        poseEpsilon = Math.max(0, mainConfig.getDouble("dirty-check.pose", 0.01));
+
+        entityPoolEnabled = mainConfig.getBoolean("entity-pool.enabled", true);
+        entityPoolMaxSize = Math.max(0, mainConfig.getInt("entity-pool.max-size", 16));
+        entityPoolIdleSeconds = Math.max(1, mainConfig.getInt("entity-pool.idle-seconds", 60));
+
+        tickBudgetNanos = (long) (Math.max(0, mainConfig.getDouble("tick-budget-ms", 1.5)) * 1_000_000L);
+
+        metricsDumpIntervalSeconds = Math.max(0, mainConfig.getInt("metrics.dump-interval-seconds", 300));
+        listenerMetricsEnabled = mainConfig.getBoolean("metrics.listeners", true);
+
+        storageFlushIntervalMillis = (long) (Math.max(0.1, mainConfig.getDouble("storage.flush-interval-seconds", 5.0)) * 1000);
+        storagePreloadTimeoutMillis = Math.max(0, mainConfig.getLong("storage.preload-timeout-ms", 2000));
     }
 
     private void saveResource(String resourcePath, boolean replace) {
@@ -95,6 +189,114 @@ public class ConfigManager {
         return messagesConfig;
     }
 
+    public FileConfiguration getMainConfig() {
+        return mainConfig;
+    }
+
+    public boolean isLodEnabled() {
+        return lodEnabled;
+    }
+
+    public int getLodFullInterval() {
+        return lodFullInterval;
+    }
+
+    public int getLodReducedInterval() {
+        return lodReducedInterval;
+    }
+
+    public int getLodMinimalInterval() {
+        return lodMinimalInterval;
+    }
+
+    public int getLodViewerCheckInterval() {
+        return lodViewerCheckInterval;
+    }
+
+    public double getLodIdleSeconds() {
+        return lodIdleSeconds;
+    }
+
+    public int getLodShards() {
+        return lodShards;
+    }
+
+    public int getLodShardTarget() {
+        return lodShardTarget;
+    }
+
+    public int getLodMaxShards() {
+        return lodMaxShards;
+    }
+
+    public BalloonManager.RenderMode getBalloonRenderMode() {
+        return balloonRenderMode;
+    }
+
+    public int getBalloonDisplayUpdateInterval() {
+        return balloonDisplayUpdateInterval;
+    }
+
+    public double getBalloonDisplayHeightOffset() {
+        return balloonDisplayHeightOffset;
+    }
+
+    public BalloonManager.LeadMode getBalloonLeadMode() {
+        return balloonLeadMode;
+    }
+
+    public boolean isBalloonAsyncPhysics() {
+        return balloonAsyncPhysics;
+    }
+
+    public int getBalloonPhysicsThreads() {
+        return balloonPhysicsThreads;
+    }
+
+    public double getPositionEpsilon() {
+        return positionEpsilon;
+    }
+
+    public double getYawEpsilon() {
+        return yawEpsilon;
+    }
+
+    public double getPoseEpsilon() {
+        return poseEpsilon;
+    }
+
+    public boolean isEntityPoolEnabled() {
+        return entityPoolEnabled;
+    }
+
+    public int getEntityPoolMaxSize() {
+        return entityPoolMaxSize;
+    }
+
+    public int getEntityPoolIdleSeconds() {
+        return entityPoolIdleSeconds;
+    }
+
+    public long getTickBudgetNanos() {
+        return tickBudgetNanos;
+    }
+
+    public int getMetricsDumpIntervalSeconds() {
+        return metricsDumpIntervalSeconds;
+    }
+
+    public boolean isListenerMetricsEnabled() {
+        return listenerMetricsEnabled;
+    }
+
+    public long getStorageFlushIntervalMillis() {
+        return storageFlushIntervalMillis;
+    }
+
+    public long getStoragePreloadTimeoutMillis() {
+        return storagePreloadTimeoutMillis;
+    }
+
     public void reloadAllConfigs() {
         loadAllConfigs();
     }
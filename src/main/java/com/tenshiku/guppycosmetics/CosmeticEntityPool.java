@@ -0,0 +1,238 @@
+package com.tenshiku.guppycosmetics;
+
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.entity.ArmorStand;
+import org.bukkit.entity.BlockDisplay;
+import org.bukkit.entity.Display;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.ItemDisplay;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.plugin.Plugin;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Keeps removed cosmetic entities around, hidden, to be reused by the next cosmetic of the same kind.
+ * Spawning an entity and sending it to every nearby client is the most expensive part of equipping,
+ * so equip storms and teleports mostly re-skin parked entities instead.
+ * Parked entities are kept per world and evicted after sitting unused for a while. They stay in the
+ * entity registry, so they keep the damage, interaction and leash protection of cosmetic entities.
+ * Lead anchors are living mobs that keep ticking while parked, so they are never pooled.
+ * Disabled on Folia, where entities can't simply be moved between the regions that want them.
+ */
+public class CosmeticEntityPool {
+    private final Plugin plugin;
+    private final ConfigManager configManager;
+    private final CosmeticScheduler scheduler;
+    private final CosmeticMetrics metrics;
+    private final CosmeticEntityRegistry entityRegistry;
+
+    // World id to parked entities by kind, oldest first
+    private final Map<UUID, Map<Kind, ArrayDeque<Parked>>> worlds = new HashMap<>();
+
+    // Registry owner of parked entities, which belong to no player
+    private static final UUID PARKED_OWNER = new UUID(0L, 0L);
+
+    // Metadata set by the spawn setups, cleared so parked entities don't point at their last owner
+    private static final String[] METADATA_KEYS = {
+            "itemId", "guppycosmetics_balloon", "guppycosmetics_balloon_anchor", "guppycosmetics_balloon_lead"
+    };
+
+    /**
+     * What a pooled entity was set up as, entities are only reused for the same kind
+     */
+    public enum Kind {
+        BALLOON_STAND(true),
+        BALLOON_DISPLAY(true),
+        LEAD_ANCHOR(false),
+        LEAD_STRING(true),
+        BACKBLING(true);
+
+        private final boolean pooled;
+
+        Kind(boolean pooled) {
+            this.pooled = pooled;
+        }
+    }
+
+    private static final class Parked {
+        final Entity entity;
+        final long parkedAt;
+
+        Parked(Entity entity, long parkedAt) {
+            this.entity = entity;
+            this.parkedAt = parkedAt;
+        }
+    }
+
+    public CosmeticEntityPool(Plugin plugin, ConfigManager configManager, CosmeticScheduler scheduler,
+                              CosmeticMetrics metrics, CosmeticEntityRegistry entityRegistry) {
+        this.plugin = plugin;
+        this.configManager = configManager;
+        this.scheduler = scheduler;
+        this.metrics = metrics;
+        this.entityRegistry = entityRegistry;
+
+        // Evict entities nobody picked up
+        if (!scheduler.isFolia()) {
+            scheduler.runGlobalTimer(this::evictIdle, 200L, 200L);
+        }
+    }
+
+    private boolean isEnabled() {
+        return configManager.isEntityPoolEnabled() && !scheduler.isFolia();
+    }
+
+    /**
+     * Get an entity for a cosmetic, reusing a parked one when possible
+     * @param kind What the entity is used as
+     * @param location Where the entity should be
+     * @param type The entity class
+     * @param setup Applied to both new and reused entities, so it has to set everything the cosmetic relies on
+     * @return The entity, ready at the given location
+     */
+    public <T extends Entity> T acquire(Kind kind, Location location, Class<T> type, Consumer<T> setup) {
+        World world = location.getWorld();
+        if (isEnabled() && kind.pooled) {
+            ArrayDeque<Parked> parked = parkedOf(world, kind, false);
+            while (parked != null && !parked.isEmpty()) {
+                // Most recently parked first, it is the least likely to have been unloaded
+                Entity entity = parked.pollLast().entity;
+                if (!entity.isValid() || !type.isInstance(entity)) {
+                    discard(entity);
+                    continue;
+                }
+
+                T reused = type.cast(entity);
+                if (reused instanceof Display) {
+                    // Jump to the new spot instead of gliding there
+                    ((Display) reused).setTeleportDuration(0);
+                }
+                if (!reused.teleport(location)) {
+                    discard(reused);
+                    continue;
+                }
+                setup.accept(reused);
+                metrics.increment(CosmeticMetrics.Counter.ENTITY_REUSES);
+                return reused;
+            }
+        }
+
+        metrics.increment(CosmeticMetrics.Counter.ENTITY_SPAWNS);
+        return world.spawn(location, type, setup);
+    }
+
+    /**
+     * Hand back an entity that is no longer used, it is parked or removed
+     * @param kind What the entity was used as
+     */
+    public void release(Kind kind, Entity entity) {
+        if (!isEnabled() || !kind.pooled || !entity.isValid()) {
+            scheduler.remove(entity);
+            return;
+        }
+
+        ArrayDeque<Parked> parked = parkedOf(entity.getWorld(), kind, true);
+        if (parked.size() >= configManager.getEntityPoolMaxSize()) {
+            entity.remove();
+            return;
+        }
+
+        hide(entity);
+        // Still a cosmetic while parked, until the next owner registers it as theirs
+        entityRegistry.register(entity, PARKED_OWNER);
+        parked.addLast(new Parked(entity, System.currentTimeMillis()));
+    }
+
+    private void hide(Entity entity) {
+        if (entity instanceof ItemDisplay) {
+            ((ItemDisplay) entity).setItemStack(null);
+        } else if (entity instanceof BlockDisplay) {
+            ((BlockDisplay) entity).setBlock(Material.AIR.createBlockData());
+        } else if (entity instanceof ArmorStand) {
+            ((ArmorStand) entity).getEquipment().setHelmet(null);
+        }
+        if (entity instanceof LivingEntity && ((LivingEntity) entity).isLeashed()) {
+            ((LivingEntity) entity).setLeashHolder(null);
+        }
+
+        entity.setCustomName(null);
+        for (String key : METADATA_KEYS) {
+            entity.removeMetadata(key, plugin);
+        }
+    }
+
+    private void discard(Entity entity) {
+        entityRegistry.unregister(entity);
+        entity.remove();
+    }
+
+    private ArrayDeque<Parked> parkedOf(World world, Kind kind, boolean create) {
+        Map<Kind, ArrayDeque<Parked>> kinds = worlds.get(world.getUID());
+        if (kinds == null) {
+            if (!create) return null;
+            kinds = new EnumMap<>(Kind.class);
+            worlds.put(world.getUID(), kinds);
+        }
+
+        ArrayDeque<Parked> parked = kinds.get(kind);
+        if (parked == null && create) {
+            parked = new ArrayDeque<>();
+            kinds.put(kind, parked);
+        }
+        return parked;
+    }
+
+    private void evictIdle() {
+        long cutoff = System.currentTimeMillis() - configManager.getEntityPoolIdleSeconds() * 1000L;
+        boolean enabled = isEnabled();
+
+        for (Map<Kind, ArrayDeque<Parked>> kinds : worlds.values()) {
+            for (ArrayDeque<Parked> parked : kinds.values()) {
+                // Oldest first, so stop at the first one still fresh enough
+                Iterator<Parked> iterator = parked.iterator();
+                while (iterator.hasNext()) {
+                    Parked entry = iterator.next();
+                    if (enabled && entry.parkedAt > cutoff && entry.entity.isValid()) break;
+                    discard(entry.entity);
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return Number of hidden entities waiting to be reused
+     */
+    public int getParkedCount() {
+        int count = 0;
+        for (Map<Kind, ArrayDeque<Parked>> kinds : worlds.values()) {
+            for (ArrayDeque<Parked> parked : kinds.values()) {
+                count += parked.size();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Remove every parked entity
+     */
+    public void shutdown() {
+        for (Map<Kind, ArrayDeque<Parked>> kinds : worlds.values()) {
+            for (ArrayDeque<Parked> parked : kinds.values()) {
+                for (Parked entry : parked) {
+                    discard(entry.entity);
+                }
+            }
+        }
+        worlds.clear();
+    }
+}
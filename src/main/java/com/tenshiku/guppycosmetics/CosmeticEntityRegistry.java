@@ -0,0 +1,73 @@
+package com.tenshiku.guppycosmetics;
+
+import org.bukkit.NamespacedKey;
+import org.bukkit.entity.Entity;
+import org.bukkit.persistence.PersistentDataType;
+import org.bukkit.plugin.Plugin;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Every entity spawned for a cosmetic, keyed by entity id.
+ * Listeners check this with a single lookup instead of inspecting custom names,
+ * which matters for events like entity damage that fire for every entity on the server.
+ * Registered entities are also tagged and never saved with their chunk, so anything tagged
+ * that shows up on chunk load was left behind and can be removed.
+ */
+public class CosmeticEntityRegistry {
+    // Entity id to the id of the player owning the cosmetic
+    private final Map<UUID, UUID> owners = new ConcurrentHashMap<>();
+    private final NamespacedKey markerKey;
+
+    public CosmeticEntityRegistry(Plugin plugin) {
+        this.markerKey = new NamespacedKey(plugin, "cosmetic_owner");
+    }
+
+    /**
+     * Track a freshly spawned cosmetic entity, marking it as a cosmetic that must not be saved
+     * @param entity The entity
+     * @param ownerId The player the cosmetic belongs to
+     */
+    public void register(Entity entity, UUID ownerId) {
+        entity.getPersistentDataContainer().set(markerKey, PersistentDataType.STRING, ownerId.toString());
+        entity.setPersistent(false);
+        owners.put(entity.getUniqueId(), ownerId);
+    }
+
+    /**
+     * Stop tracking a cosmetic entity, call this whenever one is removed
+     */
+    public void unregister(Entity entity) {
+        owners.remove(entity.getUniqueId());
+    }
+
+    /**
+     * @return true if the entity was spawned for a cosmetic
+     */
+    public boolean isCosmetic(Entity entity) {
+        return owners.containsKey(entity.getUniqueId());
+    }
+
+    /**
+     * @return true if the entity carries the cosmetic marker, whether or not it is still tracked
+     */
+    public boolean isMarked(Entity entity) {
+        return entity.getPersistentDataContainer().has(markerKey, PersistentDataType.STRING);
+    }
+
+    /**
+     * @return The id of the player owning the cosmetic entity, or null if it isn't one
+     */
+    public UUID getOwner(Entity entity) {
+        return owners.get(entity.getUniqueId());
+    }
+
+    /**
+     * @return Number of cosmetic entities currently tracked
+     */
+    public int size() {
+        return owners.size();
+    }
+}
@@ -0,0 +1,81 @@
+package com.tenshiku.guppycosmetics;
+
+import org.bukkit.entity.ArmorStand;
+import org.bukkit.entity.Chicken;
+import org.bukkit.entity.Display;
+import org.bukkit.entity.Entity;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.EntitiesLoadEvent;
+
+import java.util.UUID;
+
+/**
+ * Removes cosmetic entities that were saved into the world, for example by a crash
+ * before cosmetic entities stopped being persistent. Only looks at the entities of
+ * chunks as they load, so cleanup happens bit by bit without ever scanning a whole world.
+ */
+public class CosmeticEntitySweeper implements Listener {
+    private final GuppyCosmetics plugin;
+    private final CosmeticEntityRegistry entityRegistry;
+    private final CosmeticMetrics metrics;
+
+    // Custom names cosmetic entities were given before they carried a marker, followed by the owner's id
+    private static final String[] LEGACY_NAME_PREFIXES = {"Balloon:", "BalloonAnchor:", "BalloonLead:", "Backbling:"};
+
+    public CosmeticEntitySweeper(GuppyCosmetics plugin, CosmeticEntityRegistry entityRegistry) {
+        this.plugin = plugin;
+        this.entityRegistry = entityRegistry;
+        this.metrics = plugin.getMetrics();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntitiesLoad(EntitiesLoadEvent event) {
+        long start = metrics.startListener();
+        handleEntitiesLoad(event);
+        metrics.endListener(start);
+    }
+
+    private void handleEntitiesLoad(EntitiesLoadEvent event) {
+        int removed = 0;
+        for (Entity entity : event.getEntities()) {
+            // Live cosmetics are never saved, so anything loaded from disk is an orphan
+            if (entityRegistry.isCosmetic(entity)) continue;
+
+            if (entityRegistry.isMarked(entity) || hasLegacyName(entity)) {
+                entity.remove();
+                removed++;
+            }
+        }
+
+        if (removed > 0) {
+            plugin.getLogger().info("Removed " + removed + " leftover cosmetic entities in chunk "
+                    + event.getChunk().getX() + ", " + event.getChunk().getZ());
+        }
+    }
+
+    private static boolean hasLegacyName(Entity entity) {
+        // Only the kinds of entities older versions spawned, a player's mob named "Balloon: Bob" stays
+        if (!(entity instanceof ArmorStand || entity instanceof Chicken || entity instanceof Display)) return false;
+
+        String customName = entity.getCustomName();
+        if (customName == null) return false;
+
+        for (String prefix : LEGACY_NAME_PREFIXES) {
+            if (customName.startsWith(prefix)) {
+                return isUuid(customName.substring(prefix.length()));
+            }
+        }
+        return false;
+    }
+
+    private static boolean isUuid(String value) {
+        try {
+            UUID.fromString(value);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
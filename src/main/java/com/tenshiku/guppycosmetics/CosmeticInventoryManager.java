@@ -3,8 +3,6 @@ package com.tenshiku.guppycosmetics;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.Material;
-import org.bukkit.configuration.file.FileConfiguration;
-import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
@@ -12,26 +10,51 @@ import org.bukkit.inventory.meta.ItemMeta;
 import org.bukkit.persistence.PersistentDataType;
 import org.bukkit.plugin.Plugin;
 
-import java.io.File;
-import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class CosmeticInventoryManager {
     private final Plugin plugin;
     private final ConfigManager configManager;
+    private final CosmeticScheduler scheduler;
+    private final PlayerDataStore playerDataStore;
     private final Map<UUID, Inventory> playerCosmeticInventories;
+    private final Map<UUID, CosmeticSession> sessions;
 
     // Inventory slot constants
     public static final int BACKBLING_SLOT = 3;
     public static final int BALLOON_SLOT = 5;
     private static final String INVENTORY_TITLE = "Cosmetics";
 
-    public CosmeticInventoryManager(Plugin plugin, ConfigManager configManager) {
+    public CosmeticInventoryManager(Plugin plugin, ConfigManager configManager, CosmeticScheduler scheduler,
+                                    PlayerDataStore playerDataStore) {
         this.plugin = plugin;
         this.configManager = configManager;
-        this.playerCosmeticInventories = new HashMap<>();
+        this.scheduler = scheduler;
+        this.playerDataStore = playerDataStore;
+        // Players are handled on their own region thread on Folia
+        this.playerCosmeticInventories = new ConcurrentHashMap<>();
+        this.sessions = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Get the cached equipped cosmetics of a player
+     * @param player The player
+     * @return The player's session, created on first use
+     */
+    CosmeticSession getSession(Player player) {
+        return sessions.computeIfAbsent(player.getUniqueId(), uuid -> new CosmeticSession());
+    }
+
+    private String backblingIdOf(ItemStack item) {
+        return ItemManager.isBackbling(item, configManager) ? ItemManager.getItemId(item) : null;
+    }
+
+    private String balloonIdOf(ItemStack item) {
+        return ItemManager.isBalloon(item, configManager) ? ItemManager.getItemId(item) : null;
     }
 
     public Inventory getCosmeticInventory(Player player) {
@@ -129,6 +152,7 @@ public class CosmeticInventoryManager {
 
         // Set the new backbling
         cosmeticInventory.setItem(BACKBLING_SLOT, backbling);
+        getSession(player).backblingId = backblingIdOf(backbling);
     }
 
     public void setBalloon(Player player, ItemStack balloon) {
@@ -144,6 +168,7 @@ public class CosmeticInventoryManager {
 
         // Set the new balloon
         cosmeticInventory.setItem(BALLOON_SLOT, balloon);
+        getSession(player).balloonId = balloonIdOf(balloon);
     }
 
     public void removeBackbling(Player player) {
@@ -157,6 +182,7 @@ public class CosmeticInventoryManager {
 
         // Replace with placeholder
         cosmeticInventory.setItem(BACKBLING_SLOT, createPlaceholderPane(Material.BLUE_STAINED_GLASS_PANE, "Backbling Slot"));
+        getSession(player).backblingId = null;
     }
 
     public void removeBalloon(Player player) {
@@ -170,107 +196,108 @@ public class CosmeticInventoryManager {
 
         // Replace with placeholder
         cosmeticInventory.setItem(BALLOON_SLOT, createPlaceholderPane(Material.LIGHT_BLUE_STAINED_GLASS_PANE, "Balloon Slot"));
+        getSession(player).balloonId = null;
+    }
+
+    private boolean isLoaded(UUID playerId) {
+        CosmeticSession session = sessions.get(playerId);
+        return session != null && session.loaded;
     }
 
     public void onPlayerQuit(UUID playerId) {
         playerCosmeticInventories.remove(playerId);
+        sessions.remove(playerId);
     }
 
+    /**
+     * Queue a save of the player's equipped cosmetics, written in the background.
+     * Skipped while the saved cosmetics are still loading
+     */
     public void savePlayerCosmetics(Player player) {
-        // Get player's UUID as a string for storage
-        String uuid = player.getUniqueId().toString();
+        if (!isLoaded(player.getUniqueId())) return;
 
-        // Get cosmetic items
-        ItemStack backbling = getBackbling(player);
-        ItemStack balloon = getBalloon(player);
+        // Only the ids are stored, the items are rebuilt from the catalog on load
+        playerDataStore.save(player.getUniqueId(), new PlayerDataStore.PlayerCosmetics(
+                backblingIdOf(getBackbling(player)), balloonIdOf(getBalloon(player))));
+    }
 
-        // Only proceed if there's actually data to save
-        if (backbling == null && balloon == null) {
-            return;
+    /**
+     * Capture the equipped cosmetics of every online player in one pass, for saving them all at once
+     * @return The cosmetics to store, keyed by player
+     */
+    public Map<UUID, PlayerDataStore.PlayerCosmetics> snapshotOnlinePlayers() {
+        Map<UUID, PlayerDataStore.PlayerCosmetics> snapshot = new HashMap<>();
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            // The session mirrors the cosmetic inventory, so no items need to be read.
+            // Saving players whose cosmetics never loaded would wipe them
+            CosmeticSession session = sessions.get(player.getUniqueId());
+            if (session == null || !session.loaded) continue;
+            snapshot.put(player.getUniqueId(),
+                    new PlayerDataStore.PlayerCosmetics(session.backblingId, session.balloonId));
         }
+        return snapshot;
+    }
 
-        // Load the current file
-        File configFile = new File(plugin.getDataFolder(), "players.yml");
-        FileConfiguration playerConfig;
-
-        // Create the file if it doesn't exist
-        if (!configFile.exists()) {
-            try {
-                configFile.createNewFile();
-                playerConfig = YamlConfiguration.loadConfiguration(configFile);
-                playerConfig.createSection("players");
-            } catch (IOException e) {
-                plugin.getLogger().severe("Failed to create players.yml: " + e.getMessage());
-                return;
-            }
-        } else {
-            playerConfig = YamlConfiguration.loadConfiguration(configFile);
+    /**
+     * Read the player's saved cosmetics in the background and put them in their cosmetic inventory
+     * @param player The player
+     * @param onLoaded Run on the player's thread once the cosmetics are in place, skipped if the player left
+     */
+    public void loadPlayerCosmetics(Player player, Runnable onLoaded) {
+        CompletableFuture<PlayerDataStore.PlayerCosmetics> load =
+                playerDataStore.loadStaged(player.getUniqueId(), configManager.getStoragePreloadTimeoutMillis());
+
+        // Usually read at pre-login already, then there's nothing to wait for
+        PlayerDataStore.PlayerCosmetics ready = load.getNow(null);
+        if (ready != null) {
+            applyLoadedCosmetics(player, ready);
+            onLoaded.run();
+            return;
         }
 
-        // Clear existing data for this player
-        playerConfig.set("players." + uuid, null);
+        load.thenAccept(cosmetics ->
+                scheduler.run(player, () -> {
+                    if (!player.isOnline()) return;
+                    applyLoadedCosmetics(player, cosmetics);
+                    onLoaded.run();
+                }));
+    }
 
-        // Save cosmetics data if present
-        if (backbling != null) {
-            playerConfig.set("players." + uuid + ".backbling", backbling);
-        }
+    private void applyLoadedCosmetics(Player player, PlayerDataStore.PlayerCosmetics cosmetics) {
+        try {
+            // Get the cosmetic inventory and set items
+            Inventory cosmeticInventory = getCosmeticInventory(player);
+            CosmeticSession session = getSession(player);
+
+            ItemStack backbling = loadItem(player, cosmetics.backblingId);
+            if (backbling != null && backblingIdOf(backbling) != null) {
+                cosmeticInventory.setItem(BACKBLING_SLOT, backbling);
+                session.backblingId = cosmetics.backblingId;
+                plugin.getLogger().info("Loaded backbling for player: " + player.getName());
+            }
 
-        if (balloon != null) {
-            playerConfig.set("players." + uuid + ".balloon", balloon);
-        }
+            ItemStack balloon = loadItem(player, cosmetics.balloonId);
+            if (balloon != null && balloonIdOf(balloon) != null) {
+                cosmeticInventory.setItem(BALLOON_SLOT, balloon);
+                session.balloonId = cosmetics.balloonId;
+                plugin.getLogger().info("Loaded balloon for player: " + player.getName());
+            }
 
-        // Save the file with proper error handling
-        try {
-            playerConfig.save(configFile);
-        } catch (IOException e) {
-            plugin.getLogger().severe("Failed to save cosmetic data for player: " + player.getName());
+            session.loaded = true;
+        } catch (Exception e) {
+            plugin.getLogger().severe("Error loading cosmetics for player: " + player.getName());
             plugin.getLogger().severe("Error: " + e.getMessage());
         }
     }
 
-    public void loadPlayerCosmetics(Player player) {
-        // Get player's UUID as a string
-        String uuid = player.getUniqueId().toString();
-
-        // Load from config with better error handling
-        File configFile = new File(plugin.getDataFolder(), "players.yml");
-        if (!configFile.exists()) {
-            plugin.getLogger().warning("No players.yml found, creating a new one");
-            try {
-                configFile.createNewFile();
-                FileConfiguration emptyConfig = YamlConfiguration.loadConfiguration(configFile);
-                emptyConfig.createSection("players");
-                emptyConfig.save(configFile);
-            } catch (IOException e) {
-                plugin.getLogger().severe("Error creating players.yml: " + e.getMessage());
-            }
-            return;  // No saved data yet
-        }
+    private ItemStack loadItem(Player player, String itemId) {
+        if (itemId == null) return null;
 
-        FileConfiguration playerConfig = YamlConfiguration.loadConfiguration(configFile);
-
-        // Check if player has saved cosmetics
-        if (playerConfig.contains("players." + uuid)) {
-            try {
-                ItemStack backbling = playerConfig.getItemStack("players." + uuid + ".backbling");
-                ItemStack balloon = playerConfig.getItemStack("players." + uuid + ".balloon");
-
-                // Get the cosmetic inventory and set items
-                Inventory cosmeticInventory = getCosmeticInventory(player);
-
-                if (backbling != null) {
-                    cosmeticInventory.setItem(BACKBLING_SLOT, backbling);
-                    plugin.getLogger().info("Loaded backbling for player: " + player.getName());
-                }
-
-                if (balloon != null) {
-                    cosmeticInventory.setItem(BALLOON_SLOT, balloon);
-                    plugin.getLogger().info("Loaded balloon for player: " + player.getName());
-                }
-            } catch (Exception e) {
-                plugin.getLogger().severe("Error loading cosmetics for player: " + player.getName());
-                plugin.getLogger().severe("Error: " + e.getMessage());
-            }
+        ItemStack item = ItemManager.getItemById(itemId, configManager);
+        if (item == null) {
+            plugin.getLogger().warning("Saved cosmetic " + itemId + " of player " + player.getName()
+                    + " no longer exists in the configs");
         }
+        return item;
     }
-}
\ No newline at end of file
+}
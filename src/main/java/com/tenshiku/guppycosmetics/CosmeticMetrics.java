@@ -0,0 +1,235 @@
+package com.tenshiku.guppycosmetics;
+
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Counters and timing histograms showing what the plugin costs the server.
+ * Recording only bumps a few striped counters, so it is cheap enough to stay on in production
+ * and safe to call from any thread. Shown by /guppycosmetics stats and appended to metrics.log
+ * every few minutes.
+ */
+public class CosmeticMetrics {
+    private final Plugin plugin;
+    private final ConfigManager configManager;
+    private final CosmeticScheduler scheduler;
+
+    private final Map<Timer, Histogram> timers = new EnumMap<>(Timer.class);
+    private final Map<Counter, LongAdder> counters = new EnumMap<>(Counter.class);
+    // Values read when a report is made, like how many cosmetics are active
+    private final Map<String, LongSupplier> gauges = new LinkedHashMap<>();
+    private long lastDump = System.currentTimeMillis();
+
+    // Upper bounds of the histogram buckets in microseconds, the last bucket takes everything above
+    private static final long[] BUCKET_BOUNDS_MICROS = {50, 100, 250, 500, 1_000, 2_500, 5_000, 10_000, 50_000};
+
+    private static final DateTimeFormatter DUMP_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    /**
+     * Work that gets timed
+     */
+    public enum Timer {
+        BALLOON_TICK("Balloon update loop"),
+        BACKBLING_TICK("Backbling update loop"),
+        SAVE("Player save"),
+        LOAD("Player load"),
+        LISTENERS("Event listeners (clicks, quits, explosions, chunk loads)");
+
+        private final String label;
+
+        Timer(String label) {
+            this.label = label;
+        }
+    }
+
+    /**
+     * Events that get counted
+     */
+    public enum Counter {
+        ENTITY_SPAWNS("Entities spawned"),
+        ENTITY_REUSES("Entities reused from the pool"),
+        RECREATIONS("Cosmetics recreated"),
+        SAVES_COALESCED("Saves merged into a queued save"),
+        PRELOADS_USED("Joins served from pre-login data"),
+        PRELOADS_MISSED("Joins loaded without pre-login data");
+
+        private final String label;
+
+        Counter(String label) {
+            this.label = label;
+        }
+    }
+
+    private static final class Histogram {
+        final LongAdder count = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        final LongAdder[] buckets = new LongAdder[BUCKET_BOUNDS_MICROS.length + 1];
+
+        Histogram() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        void record(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+
+            long micros = nanos / 1_000;
+            int bucket = 0;
+            while (bucket < BUCKET_BOUNDS_MICROS.length && micros > BUCKET_BOUNDS_MICROS[bucket]) {
+                bucket++;
+            }
+            buckets[bucket].increment();
+        }
+
+        /**
+         * @return Upper bound in microseconds of the bucket holding the given fraction of samples, -1 for above all
+         */
+        long percentileMicros(long total, double fraction) {
+            long target = (long) Math.ceil(total * fraction);
+            long seen = 0;
+            for (int i = 0; i < BUCKET_BOUNDS_MICROS.length; i++) {
+                seen += buckets[i].sum();
+                if (seen >= target) return BUCKET_BOUNDS_MICROS[i];
+            }
+            return -1;
+        }
+    }
+
+    public CosmeticMetrics(Plugin plugin, ConfigManager configManager, CosmeticScheduler scheduler) {
+        this.plugin = plugin;
+        this.configManager = configManager;
+        this.scheduler = scheduler;
+
+        for (Timer timer : Timer.values()) {
+            timers.put(timer, new Histogram());
+        }
+        for (Counter counter : Counter.values()) {
+            counters.put(counter, new LongAdder());
+        }
+
+        // Check once a minute whether a dump is due, so reloads can change the interval
+        scheduler.runGlobalTimer(this::dumpIfDue, 1200L, 1200L);
+    }
+
+    /**
+     * Record how long something took
+     * @param timer What was timed
+     * @param startNanos {@link System#nanoTime()} when it started
+     */
+    public void record(Timer timer, long startNanos) {
+        timers.get(timer).record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Start timing one of the event listeners worth timing, the cheap ones on hot events aren't
+     * @return The start time for {@link #endListener}, 0 when listener timing is turned off
+     */
+    public long startListener() {
+        return configManager.isListenerMetricsEnabled() ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Record a listener timed with {@link #startListener}
+     */
+    public void endListener(long startNanos) {
+        if (startNanos != 0) {
+            record(Timer.LISTENERS, startNanos);
+        }
+    }
+
+    public void increment(Counter counter) {
+        counters.get(counter).increment();
+    }
+
+    /**
+     * Add a value to the reports, read on the thread making the report
+     * @param label Name shown in the report
+     * @param supplier Reads the current value
+     */
+    public void addGauge(String label, LongSupplier supplier) {
+        gauges.put(label, supplier);
+    }
+
+    /**
+     * Build a plain text report of everything recorded since startup
+     * @return One line per timer followed by the counters and gauges
+     */
+    public List<String> report() {
+        List<String> lines = new ArrayList<>();
+        for (Map.Entry<Timer, Histogram> entry : timers.entrySet()) {
+            Histogram histogram = entry.getValue();
+            long count = histogram.count.sum();
+            if (count == 0) {
+                lines.add(entry.getKey().label + ": no samples");
+                continue;
+            }
+
+            lines.add(String.format(Locale.ROOT, "%s: %d samples, avg %.3f ms, p50 %s, p99 %s, max %.3f ms",
+                    entry.getKey().label, count,
+                    histogram.totalNanos.sum() / (double) count / 1_000_000.0,
+                    formatBound(histogram.percentileMicros(count, 0.50)),
+                    formatBound(histogram.percentileMicros(count, 0.99)),
+                    histogram.maxNanos.get() / 1_000_000.0));
+        }
+        for (Map.Entry<Counter, LongAdder> entry : counters.entrySet()) {
+            lines.add(entry.getKey().label + ": " + entry.getValue().sum());
+        }
+        for (Map.Entry<String, LongSupplier> entry : gauges.entrySet()) {
+            lines.add(entry.getKey() + ": " + entry.getValue().getAsLong());
+        }
+        return lines;
+    }
+
+    private static String formatBound(long micros) {
+        if (micros < 0) return "over " + BUCKET_BOUNDS_MICROS[BUCKET_BOUNDS_MICROS.length - 1] / 1_000 + " ms";
+        return "under " + String.format(Locale.ROOT, "%.2f", micros / 1_000.0) + " ms";
+    }
+
+    private void dumpIfDue() {
+        int intervalSeconds = configManager.getMetricsDumpIntervalSeconds();
+        if (intervalSeconds <= 0) return;
+
+        long now = System.currentTimeMillis();
+        if (now - lastDump < intervalSeconds * 1000L) return;
+        lastDump = now;
+
+        // Gauges read plugin state, so report here and only write the file off the main thread
+        List<String> lines = report();
+        String header = "[" + LocalDateTime.now().format(DUMP_TIME_FORMAT) + "]";
+        scheduler.runAsync(() -> write(header, lines));
+    }
+
+    private void write(String header, List<String> lines) {
+        File file = new File(plugin.getDataFolder(), "metrics.log");
+        try (Writer writer = new FileWriter(file, true)) {
+            writer.write(header);
+            writer.write(System.lineSeparator());
+            for (String line : lines) {
+                writer.write("  ");
+                writer.write(line);
+                writer.write(System.lineSeparator());
+            }
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to write metrics.log: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.tenshiku.guppycosmetics;
+
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Schedules plugin work on the right thread for the server it runs on.
+ * On regular servers everything goes through the Bukkit scheduler on the main thread.
+ * On region-threaded (Folia) servers entity work runs on the thread owning that entity,
+ * so cosmetics are updated in parallel with the rest of their region.
+ */
+public class CosmeticScheduler {
+    private final Plugin plugin;
+    private final boolean folia;
+
+    /**
+     * Handle to a scheduled repeating task
+     */
+    public interface Task {
+        void cancel();
+    }
+
+    public CosmeticScheduler(Plugin plugin) {
+        this.plugin = plugin;
+        this.folia = isRegionThreaded();
+    }
+
+    private static boolean isRegionThreaded() {
+        try {
+            Class.forName("io.papermc.paper.threadedregions.RegionizedServer");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return true if the server runs regions on separate threads
+     */
+    public boolean isFolia() {
+        return folia;
+    }
+
+    /**
+     * Run a repeating task on the global thread (the main thread on regular servers)
+     */
+    public Task runGlobalTimer(Runnable task, long delay, long period) {
+        if (folia) {
+            return Bukkit.getGlobalRegionScheduler()
+                    .runAtFixedRate(plugin, scheduled -> task.run(), Math.max(1L, delay), period)::cancel;
+        }
+        return Bukkit.getScheduler().runTaskTimer(plugin, task, delay, period)::cancel;
+    }
+
+    /**
+     * Run a task on the global thread (the main thread on regular servers) on the next tick
+     */
+    public void runGlobal(Runnable task) {
+        if (folia) {
+            Bukkit.getGlobalRegionScheduler().execute(plugin, task);
+        } else {
+            Bukkit.getScheduler().runTask(plugin, task);
+        }
+    }
+
+    /**
+     * Run a task on the thread owning an entity on the next tick.
+     * The task is dropped if the entity is removed first.
+     */
+    public void run(Entity entity, Runnable task) {
+        runLater(entity, task, 1L);
+    }
+
+    /**
+     * Run a task on the thread owning an entity after a delay.
+     * The task is dropped if the entity is removed first.
+     */
+    public void runLater(Entity entity, Runnable task, long delay) {
+        if (folia) {
+            entity.getScheduler().runDelayed(plugin, scheduled -> task.run(), null, Math.max(1L, delay));
+        } else {
+            Bukkit.getScheduler().runTaskLater(plugin, task, delay);
+        }
+    }
+
+    /**
+     * Run a repeating task on the thread owning an entity, it stops once the entity is removed
+     * @return The task handle, or null if the entity was already removed
+     */
+    public Task runTimer(Entity entity, Runnable task, long delay, long period) {
+        if (folia) {
+            ScheduledTask scheduled = entity.getScheduler()
+                    .runAtFixedRate(plugin, t -> task.run(), null, Math.max(1L, delay), period);
+            return scheduled == null ? null : scheduled::cancel;
+        }
+        return Bukkit.getScheduler().runTaskTimer(plugin, task, delay, period)::cancel;
+    }
+
+    /**
+     * Run a task on the thread owning an entity, right away if this is already that thread
+     */
+    public void execute(Entity entity, Runnable task) {
+        if (folia) {
+            if (Bukkit.isOwnedByCurrentRegion(entity)) {
+                task.run();
+            } else {
+                entity.getScheduler().execute(plugin, task, null, 1L);
+            }
+        } else if (Bukkit.isPrimaryThread()) {
+            task.run();
+        } else {
+            Bukkit.getScheduler().runTask(plugin, task);
+        }
+    }
+
+    /**
+     * @return true if the current thread may change the entity: its region's thread on Folia, the main thread otherwise
+     */
+    public boolean isOwnedByCurrentThread(Entity entity) {
+        return folia ? Bukkit.isOwnedByCurrentRegion(entity) : Bukkit.isPrimaryThread();
+    }
+
+    /**
+     * Remove an entity from the thread that owns it
+     */
+    public void remove(Entity entity) {
+        execute(entity, entity::remove);
+    }
+
+    /**
+     * Move an entity, Folia only allows asynchronous teleports
+     * @return Completes with whether the entity was moved, right away on regular servers
+     */
+    public CompletableFuture<Boolean> teleport(Entity entity, Location location) {
+        if (folia) {
+            // Callers reuse their location, the teleport may complete after they changed it
+            return entity.teleportAsync(location.clone());
+        }
+        return CompletableFuture.completedFuture(entity.teleport(location));
+    }
+
+    /**
+     * Move an entity from the thread owning it, for entities that may be in another region than the caller
+     * @param prepare Run on the entity's thread right before the teleport
+     * @return Completes with whether the entity was moved, false if it was removed first
+     */
+    public CompletableFuture<Boolean> teleportFromOwner(Entity entity, Location location, Runnable prepare) {
+        if (!folia) {
+            prepare.run();
+            return CompletableFuture.completedFuture(entity.teleport(location));
+        }
+
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        Location target = location.clone();
+        boolean scheduled = entity.getScheduler().execute(plugin, () -> {
+            prepare.run();
+            entity.teleportAsync(target).whenComplete((moved, error) -> result.complete(error == null && moved));
+        }, () -> result.complete(false), 1L);
+        if (!scheduled) {
+            result.complete(false);
+        }
+        return result;
+    }
+
+    /**
+     * Run a task off the server threads
+     */
+    public void runAsync(Runnable task) {
+        if (folia) {
+            Bukkit.getAsyncScheduler().runNow(plugin, scheduled -> task.run());
+        } else {
+            Bukkit.getScheduler().runTaskAsynchronously(plugin, task);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.tenshiku.guppycosmetics;
+
+/**
+ * Cached view of what a player currently has equipped in their cosmetic inventory.
+ * Updated by {@link CosmeticInventoryManager} whenever a slot changes, so the update
+ * loops can check a field instead of reading item meta every tick.
+ */
+class CosmeticSession {
+    // Item ids of the equipped cosmetics, null when the slot is empty.
+    // Volatile since the inventory and the cosmetic updates may run on different region threads
+    volatile String backblingId;
+    volatile String balloonId;
+
+    // Set once the saved cosmetics are in the cosmetic inventory, until then saving would overwrite them with empty slots
+    volatile boolean loaded;
+
+    boolean hasBackbling() {
+        return backblingId != null;
+    }
+
+    boolean hasBalloon() {
+        return balloonId != null;
+    }
+}
@@ -0,0 +1,56 @@
+package com.tenshiku.guppycosmetics;
+
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+
+import java.util.UUID;
+
+/**
+ * Tracking data shared by every active cosmetic entity: the owner and
+ * the level-of-detail schedule deciding when it is updated next.
+ */
+abstract class CosmeticState {
+    final UUID ownerId;
+    final Player player;
+    // Owner's equipped cosmetics, checked every update instead of the item itself
+    final CosmeticSession session;
+
+    // Index into the owning manager's dense slot list, -1 once removed
+    int slot = -1;
+
+    // Per-entity update task and its own tick counter, only used on Folia
+    CosmeticScheduler.Task task;
+    long ticks;
+
+    // Reused to read the owner's position, one per state so region threads never share it
+    final Location ownerLocation = new Location(null, 0, 0, 0);
+
+    // Level of detail schedule, in manager ticks
+    long lastUpdateTick;
+    long nextUpdateTick;
+    int updateInterval = 1;
+    // Lower bound for updateInterval, e.g. for entities the client interpolates
+    int minInterval = 1;
+    boolean watched = true;
+    boolean idle;
+    // Round-robin group this cosmetic is updated with, only its remainder by the group count matters
+    int shard;
+
+    // Interpolation duration currently set on the display entities
+    int displayInterval;
+
+    // Entities are being moved to the owner after a teleport on Folia, no updates until they arrive
+    volatile boolean relocating;
+
+    CosmeticState(Player player, CosmeticSession session) {
+        this.ownerId = player.getUniqueId();
+        this.player = player;
+        this.session = session;
+    }
+
+    /**
+     * @param location The owner's current location
+     * @return true if the owner moved noticeably since the last update
+     */
+    abstract boolean hasMovedSince(Location location);
+}
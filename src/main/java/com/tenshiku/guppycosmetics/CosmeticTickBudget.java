@@ -0,0 +1,112 @@
+package com.tenshiku.guppycosmetics;
+
+import org.bukkit.Bukkit;
+
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Time the cosmetic update loops may spend per server tick, shared by every manager.
+ * Each loop gets an even share of what is left when it starts, plus whatever the loops before it
+ * didn't use, and always gets to update at least one cosmetic, so one manager can't starve the other.
+ * A loop that runs out of time stops and resumes where it left off on the next tick,
+ * so a crowd of cosmetics can't push the server past its tick budget during peak load.
+ * Only used by the global update loops, on Folia each cosmetic ticks with its own region.
+ */
+public class CosmeticTickBudget {
+    private final LongSupplier budgetNanos;
+
+    // Server tick the remaining time belongs to
+    private int budgetTick = -1;
+    private long remainingNanos;
+
+    // Loops that started during the previous tick and during this one, to split the time between them
+    private int loopsLastTick = 1;
+    private int loopsThisTick;
+
+    // Cosmetics skipped because the budget ran out, since startup
+    private long deferrals;
+
+    public CosmeticTickBudget(ConfigManager configManager) {
+        this(configManager::getTickBudgetNanos);
+    }
+
+    CosmeticTickBudget(LongSupplier budgetNanos) {
+        this.budgetNanos = budgetNanos;
+    }
+
+    /**
+     * Start an update loop, resetting the budget if this is the first loop of the tick
+     * @param startNanos {@link System#nanoTime()} when the loop started
+     * @return The nano time the loop should stop at, see {@link #outOfTime(long, int)}
+     */
+    long begin(long startNanos) {
+        return begin(Bukkit.getCurrentTick(), startNanos);
+    }
+
+    long begin(int tick, long startNanos) {
+        long budget = budgetNanos.getAsLong();
+        if (budget <= 0) return Long.MAX_VALUE;
+
+        if (tick != budgetTick) {
+            if (budgetTick >= 0) {
+                loopsLastTick = Math.max(1, loopsThisTick);
+            }
+            budgetTick = tick;
+            remainingNanos = budget;
+            loopsThisTick = 0;
+        }
+
+        // Leave an even share for the loops that haven't run yet this tick
+        int loopsLeft = Math.max(1, loopsLastTick - loopsThisTick);
+        loopsThisTick++;
+        return startNanos + Math.max(0, remainingNanos / loopsLeft);
+    }
+
+    /**
+     * Finish an update loop, taking its time off what the other loops get this tick
+     * @param startNanos The time passed to {@link #begin(long)}
+     * @param deferred Number of cosmetics the loop didn't get to
+     */
+    void end(long startNanos, int deferred) {
+        end(startNanos, System.nanoTime(), deferred);
+    }
+
+    void end(long startNanos, long endNanos, int deferred) {
+        remainingNanos -= endNanos - startNanos;
+        deferrals += deferred;
+    }
+
+    /**
+     * @param deadline The time returned by {@link #begin(long)}
+     * @param updated Cosmetics the loop updated so far this tick
+     * @return Whether the loop has to stop, never before its first update so every loop makes progress
+     */
+    static boolean outOfTime(long deadline, int updated) {
+        return updated > 0 && System.nanoTime() >= deadline;
+    }
+
+    /**
+     * Count the cosmetics still due in the part of an update loop that was cut short
+     * @param slots The loop's slot list, walked backwards and wrapping around like the loop does
+     * @param from Slot the loop stopped at
+     * @param left Number of slots the loop didn't visit
+     * @param tick The loop's current tick
+     * @return Number of due cosmetics among them
+     */
+    static int countDue(List<? extends CosmeticState> slots, int from, int left, long tick) {
+        int due = 0;
+        for (int i = from; left > 0; left--, i--) {
+            if (i < 0) i = slots.size() - 1;
+            if (i < slots.size() && tick >= slots.get(i).nextUpdateTick) due++;
+        }
+        return due;
+    }
+
+    /**
+     * @return How many cosmetic updates were pushed to a later tick since startup
+     */
+    public long getDeferrals() {
+        return deferrals;
+    }
+}
@@ -1,11 +1,11 @@
 package com.tenshiku.guppycosmetics;
 
 import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
 import org.bukkit.NamespacedKey;
 import org.bukkit.entity.Player;
 import org.bukkit.entity.Entity;
-import org.bukkit.entity.ArmorStand;
-import org.bukkit.entity.Chicken;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
@@ -16,6 +16,7 @@ import org.bukkit.event.player.PlayerSwapHandItemsEvent;
 import org.bukkit.event.inventory.InventoryType;
 import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
 import org.bukkit.event.entity.EntityDamageEvent;
 import org.bukkit.event.entity.EntityExplodeEvent;
 import org.bukkit.inventory.ItemStack;
@@ -23,6 +24,7 @@ import org.bukkit.event.block.Action;
 import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
 import org.bukkit.persistence.PersistentDataType;
 
+import java.util.List;
 import java.util.UUID;
 
 public class EventListener implements Listener {
@@ -30,12 +32,23 @@ public class EventListener implements Listener {
     private final ConfigManager configManager;
     private final BackblingManager backblingManager;
     private final BalloonManager balloonManager;
+    private final CosmeticEntityRegistry entityRegistry;
+    private final BalloonSpatialIndex balloonIndex;
+    private final CosmeticMetrics metrics;
+    private final PlayerDataStore playerDataStore;
+
+    // Blocks within this distance of a balloon survive explosions
+    private static final double EXPLOSION_PROTECTION_RADIUS = 2;
 
     public EventListener(GuppyCosmetics plugin, ConfigManager configManager, BackblingManager backblingManager, BalloonManager balloonManager) {
         this.plugin = plugin;
         this.configManager = configManager;
         this.backblingManager = backblingManager;
         this.balloonManager = balloonManager;
+        this.entityRegistry = plugin.getEntityRegistry();
+        this.balloonIndex = plugin.getBalloonIndex();
+        this.metrics = plugin.getMetrics();
+        this.playerDataStore = plugin.getPlayerDataStore();
     }
 
     private String getPrefix() {
@@ -56,37 +69,29 @@ public class EventListener implements Listener {
     public void onPlayerInteractAtEntity(PlayerInteractAtEntityEvent event) {
         Entity entity = event.getRightClicked();
 
-        // Check if the entity is a balloon armorstand
-        if (entity instanceof ArmorStand && entity.getCustomName() != null &&
-                entity.getCustomName().startsWith("Balloon:")) {
-            event.setCancelled(true);
-            return;
-        }
-
-        // Check if the entity is a balloon anchor chicken
-        if (entity instanceof Chicken && entity.getCustomName() != null &&
-                entity.getCustomName().startsWith("BalloonAnchor:")) {
+        // Check if the entity belongs to a cosmetic (balloon, anchor chicken, lead or backbling)
+        if (entityRegistry.isCosmetic(entity)) {
             event.setCancelled(true);
             return;
         }
 
         // Also prevent interaction with lead hitches (if any)
         if (entity instanceof org.bukkit.entity.LeashHitch) {
-            // Get nearby entities to see if this might be connected to a balloon
-            for (Entity nearby : entity.getNearbyEntities(5, 5, 5)) {
-                if ((nearby instanceof Chicken && nearby.getCustomName() != null &&
-                        nearby.getCustomName().startsWith("BalloonAnchor:")) ||
-                        (nearby instanceof ArmorStand && nearby.getCustomName() != null &&
-                                nearby.getCustomName().startsWith("Balloon:"))) {
-                    event.setCancelled(true);
-                    return;
-                }
+            // Check whether a balloon is close enough for this to be its lead
+            if (balloonIndex.hasBalloonNear(entity.getLocation(), 5)) {
+                event.setCancelled(true);
             }
         }
     }
 
     @EventHandler
     public void onRightClick(PlayerInteractEvent event) {
+        long start = metrics.startListener();
+        handleRightClick(event);
+        metrics.endListener(start);
+    }
+
+    private void handleRightClick(PlayerInteractEvent event) {
         // Only handle right-click actions
         if (event.getAction() != Action.RIGHT_CLICK_AIR && event.getAction() != Action.RIGHT_CLICK_BLOCK) {
             return;
@@ -147,7 +152,7 @@ public class EventListener implements Listener {
         // If we're swapping a balloon item into the off-hand
         if (mainHandItem != null && ItemManager.isBalloon(mainHandItem, configManager)) {
             // Let the swap happen, then create the balloon next tick
-            plugin.getServer().getScheduler().runTask(plugin, () -> {
+            plugin.getCosmeticScheduler().run(player, () -> {
                 balloonManager.createBalloon(player, mainHandItem);
             });
         }
@@ -155,6 +160,12 @@ public class EventListener implements Listener {
 
     @EventHandler
     public void onInventoryClick(InventoryClickEvent event) {
+        long start = metrics.startListener();
+        handleInventoryClick(event);
+        metrics.endListener(start);
+    }
+
+    private void handleInventoryClick(InventoryClickEvent event) {
         if (!(event.getWhoClicked() instanceof Player)) return;
         Player player = (Player) event.getWhoClicked();
 
@@ -250,6 +261,12 @@ public class EventListener implements Listener {
 
     @EventHandler
     public void onPlayerQuit(PlayerQuitEvent event) {
+        long start = metrics.startListener();
+        handlePlayerQuit(event);
+        metrics.endListener(start);
+    }
+
+    private void handlePlayerQuit(PlayerQuitEvent event) {
         Player player = event.getPlayer();
         UUID uuid = player.getUniqueId();
 
@@ -264,47 +281,70 @@ public class EventListener implements Listener {
         plugin.getCosmeticInventoryManager().onPlayerQuit(uuid);
     }
 
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onAsyncPlayerPreLogin(AsyncPlayerPreLoginEvent event) {
+        // Read the saved cosmetics while the login finishes, so the join finds them in memory
+        if (event.getLoginResult() == AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+            playerDataStore.preload(event.getUniqueId());
+        }
+    }
+
     @EventHandler
     public void onPlayerJoin(PlayerJoinEvent event) {
-        plugin.getServer().getScheduler().runTaskLater(plugin, () -> {
-            Player player = event.getPlayer();
-
-            // First, load the saved cosmetics from file
-            plugin.getCosmeticInventoryManager().loadPlayerCosmetics(player);
-
-            // Then restore visual entities
-            backblingManager.checkAndRestoreBackbling(player);
-            balloonManager.checkAndRestoreBalloon(player);
+        Player player = event.getPlayer();
+        plugin.getCosmeticScheduler().runLater(player, () -> {
+            // First, pick up the cosmetics read at pre-login, then restore visual entities
+            plugin.getCosmeticInventoryManager().loadPlayerCosmetics(player, () -> {
+                backblingManager.checkAndRestoreBackbling(player);
+                balloonManager.checkAndRestoreBalloon(player);
+            });
         }, 5L); // Keep a small delay for stability
     }
 
     @EventHandler(priority = EventPriority.HIGHEST)
     public void onEntityDamage(EntityDamageEvent event) {
-        Entity entity = event.getEntity();
-        // Check if the entity is one of our balloon armorstands
-        if (entity instanceof ArmorStand && entity.getCustomName() != null &&
-                entity.getCustomName().startsWith("Balloon:")) {
-            // Cancel the damage event
-            event.setCancelled(true);
-        }
-
-        // Also protect the chicken anchor
-        if (entity instanceof Chicken && entity.getCustomName() != null &&
-                entity.getCustomName().startsWith("BalloonAnchor:")) {
+        // Protect balloons, their anchor chickens and every other cosmetic entity
+        if (entityRegistry.isCosmetic(event.getEntity())) {
             event.setCancelled(true);
         }
     }
 
     @EventHandler(priority = EventPriority.HIGHEST)
     public void onEntityExplode(EntityExplodeEvent event) {
-        // Remove any balloon-related entities from the block list to prevent them from being destroyed
-        event.blockList().removeIf(block -> {
-            // Check nearby entities that might be our balloons
-            for (Entity entity : block.getWorld().getNearbyEntities(block.getLocation(), 2, 2, 2)) {
-                if ((entity instanceof ArmorStand && entity.getCustomName() != null &&
-                        entity.getCustomName().startsWith("Balloon:")) ||
-                        (entity instanceof Chicken && entity.getCustomName() != null &&
-                                entity.getCustomName().startsWith("BalloonAnchor:"))) {
+        long start = metrics.startListener();
+        protectBalloonBlocks(balloonIndex, event.getEntity().getWorld(), event.blockList());
+        metrics.endListener(start);
+    }
+
+    /**
+     * Remove the blocks close to a balloon from an explosion's block list
+     * @param world World the explosion happened in
+     * @param blocks The explosion's block list, changed in place
+     */
+    static void protectBalloonBlocks(BalloonSpatialIndex balloonIndex, World world, List<Block> blocks) {
+        if (blocks.isEmpty()) return;
+
+        // Find the balloons around the whole explosion once, instead of searching around every block
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, minZ = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE, maxZ = Integer.MIN_VALUE;
+        for (Block block : blocks) {
+            minX = Math.min(minX, block.getX());
+            minY = Math.min(minY, block.getY());
+            minZ = Math.min(minZ, block.getZ());
+            maxX = Math.max(maxX, block.getX());
+            maxY = Math.max(maxY, block.getY());
+            maxZ = Math.max(maxZ, block.getZ());
+        }
+        List<BalloonState> nearby = balloonIndex.balloonsWithin(world,
+                minX - EXPLOSION_PROTECTION_RADIUS, minY - EXPLOSION_PROTECTION_RADIUS, minZ - EXPLOSION_PROTECTION_RADIUS,
+                maxX + EXPLOSION_PROTECTION_RADIUS, maxY + EXPLOSION_PROTECTION_RADIUS, maxZ + EXPLOSION_PROTECTION_RADIUS);
+        if (nearby.isEmpty()) return;
+
+        // Keep blocks close to a balloon to prevent it from being destroyed
+        blocks.removeIf(block -> {
+            for (int i = 0; i < nearby.size(); i++) {
+                if (BalloonSpatialIndex.isNear(nearby.get(i), block.getX(), block.getY(), block.getZ(),
+                        EXPLOSION_PROTECTION_RADIUS)) {
                     return true;
                 }
             }
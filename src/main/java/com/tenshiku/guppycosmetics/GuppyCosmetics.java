@@ -1,12 +1,10 @@
 package com.tenshiku.guppycosmetics;
 
-import org.bukkit.Bukkit;
-import org.bukkit.configuration.file.YamlConfiguration;
-import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
 
-import java.io.File;
-import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
 
 public class GuppyCosmetics extends JavaPlugin {
 
@@ -16,6 +14,13 @@ public class GuppyCosmetics extends JavaPlugin {
     private BackblingManager backblingManager;
     private BalloonManager balloonManager;
     private CosmeticInventoryManager cosmeticInventoryManager;
+    private CosmeticScheduler cosmeticScheduler;
+    private CosmeticEntityRegistry entityRegistry;
+    private BalloonSpatialIndex balloonIndex;
+    private CosmeticEntityPool entityPool;
+    private CosmeticTickBudget tickBudget;
+    private CosmeticMetrics metrics;
+    private PlayerDataStore playerDataStore;
     private BalloonLeadProtector balloonLeadProtector; // Add this line
 
     @Override
@@ -25,30 +30,38 @@ public class GuppyCosmetics extends JavaPlugin {
             getDataFolder().mkdirs();
         }
 
-        // Initialize the players.yml file if it doesn't exist
-        File playersFile = new File(getDataFolder(), "players.yml");
-        if (!playersFile.exists()) {
-            try {
-                playersFile.createNewFile();
-                // Create a default structure
-                YamlConfiguration config = YamlConfiguration.loadConfiguration(playersFile);
-                config.set("players", null); // Create empty players section
-                config.save(playersFile);
-            } catch (IOException e) {
-                getLogger().severe("Could not create players.yml file!");
-                e.printStackTrace();
-            }
-        }
+        // Pick the Bukkit or Folia schedulers before anything starts tasks
+        cosmeticScheduler = new CosmeticScheduler(this);
 
         configManager = new ConfigManager(this);
         configManager.loadAllConfigs();
 
+        metrics = new CosmeticMetrics(this, configManager, cosmeticScheduler);
+
         // Initialize inventory manager before other managers
-        cosmeticInventoryManager = new CosmeticInventoryManager(this, configManager);
+        playerDataStore = new PlayerDataStore(this, configManager, metrics);
+        cosmeticInventoryManager = new CosmeticInventoryManager(this, configManager, cosmeticScheduler, playerDataStore);
 
         // Initialize managers
-        backblingManager = new BackblingManager(this, configManager);
-        balloonManager = new BalloonManager(this, configManager);
+        LodScheduler lodScheduler = new LodScheduler(configManager);
+        entityRegistry = new CosmeticEntityRegistry(this);
+        balloonIndex = new BalloonSpatialIndex();
+        entityPool = new CosmeticEntityPool(this, configManager, cosmeticScheduler, metrics, entityRegistry);
+        tickBudget = new CosmeticTickBudget(configManager);
+        backblingManager = new BackblingManager(this, configManager, lodScheduler, cosmeticScheduler, entityRegistry,
+                entityPool, tickBudget, metrics);
+        balloonManager = new BalloonManager(this, configManager, lodScheduler, cosmeticScheduler, entityRegistry,
+                balloonIndex, entityPool, tickBudget, metrics);
+
+        // Current values shown alongside the timings in /guppycosmetics stats
+        metrics.addGauge("Active balloons", balloonManager::getActiveCount);
+        metrics.addGauge("Active backblings", backblingManager::getActiveCount);
+        metrics.addGauge("Tracked cosmetic entities", entityRegistry::size);
+        metrics.addGauge("Pooled entities", entityPool::getParkedCount);
+        metrics.addGauge("Updates deferred by the tick budget", tickBudget::getDeferrals);
+
+        // Remove cosmetic entities left in the world by a crash as their chunks load
+        getServer().getPluginManager().registerEvents(new CosmeticEntitySweeper(this, entityRegistry), this);
 
         // Initialize and register the balloon lead protector
         balloonLeadProtector = new BalloonLeadProtector(this);
@@ -70,10 +83,16 @@ public class GuppyCosmetics extends JavaPlugin {
 
     @Override
     public void onDisable() {
-        // Save all player cosmetics
-        for (Player player : Bukkit.getOnlinePlayers()) {
-            cosmeticInventoryManager.savePlayerCosmetics(player);
+        // Snapshot everyone's cosmetics in one pass, they're written as a single batch below
+        long saveStart = System.nanoTime();
+        int savedPlayers = 0;
+        if (cosmeticInventoryManager != null && playerDataStore != null) {
+            Map<UUID, PlayerDataStore.PlayerCosmetics> snapshot = cosmeticInventoryManager.snapshotOnlinePlayers();
+            playerDataStore.saveAll(snapshot);
+            savedPlayers = snapshot.size();
         }
+        // Only the snapshot and the final write count as saving, not the entity cleanup in between
+        long saveNanos = System.nanoTime() - saveStart;
 
         // Clean up display entities on shutdown
         if (backblingManager != null) {
@@ -82,9 +101,49 @@ public class GuppyCosmetics extends JavaPlugin {
         if (balloonManager != null) {
             balloonManager.shutdown();
         }
+        // After the managers, which hand their entities back to the pool
+        if (entityPool != null) {
+            entityPool.shutdown();
+        }
+        // Wait for the saves queued above to reach the disk
+        if (playerDataStore != null) {
+            long flushStart = System.nanoTime();
+            playerDataStore.shutdown();
+            saveNanos += System.nanoTime() - flushStart;
+            getLogger().info(String.format(Locale.ROOT, "Saved cosmetics of %d players in %.1f ms",
+                    savedPlayers, saveNanos / 1_000_000.0));
+        }
+    }
+
+    public ConfigManager getConfigManager() {
+        return configManager;
     }
 
     public CosmeticInventoryManager getCosmeticInventoryManager() {
         return cosmeticInventoryManager;
     }
+
+    public CosmeticScheduler getCosmeticScheduler() {
+        return cosmeticScheduler;
+    }
+
+    public CosmeticEntityRegistry getEntityRegistry() {
+        return entityRegistry;
+    }
+
+    public BalloonSpatialIndex getBalloonIndex() {
+        return balloonIndex;
+    }
+
+    public CosmeticTickBudget getTickBudget() {
+        return tickBudget;
+    }
+
+    public CosmeticMetrics getMetrics() {
+        return metrics;
+    }
+
+    public PlayerDataStore getPlayerDataStore() {
+        return playerDataStore;
+    }
 }
\ No newline at end of file
@@ -12,10 +12,32 @@ import org.bukkit.inventory.meta.ItemMeta;
 import org.bukkit.persistence.PersistentDataType;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ItemManager {
+    // Items already built from the configs by id, copied for every request instead of parsing the config again
+    private static final Map<String, ItemStack> templates = new ConcurrentHashMap<>();
 
     public static ItemStack getItemById(String id, ConfigManager configManager) {
+        ItemStack template = templates.get(id);
+        if (template == null) {
+            template = buildItem(id, configManager);
+            if (template == null) return null;
+            templates.put(id, template);
+        }
+        return template.clone();
+    }
+
+    /**
+     * Forget the cached items, call this whenever the cosmetic configs are loaded
+     */
+    public static void clearTemplates() {
+        templates.clear();
+    }
+
+    private static ItemStack buildItem(String id, ConfigManager configManager) {
         if (configManager.getHatsConfig().contains(id)) {
             return createItem(configManager.getHatsConfig(), id, "hat");
         } else if (configManager.getBackblingConfig().contains(id)) {
@@ -125,20 +147,21 @@ public class ItemManager {
      * @param player The player to give the item to
      * @param itemId The item ID from configuration
      * @param configManager The config manager
-     * @return True if successful, false otherwise
+     * @return Completes with true once the hat is in the player's inventory with its metadata, false if that failed.
+     *         Never completes if the player leaves on Folia before the hat is given
      */
-    public static boolean giveHatWithOverlay(Player player, String itemId, ConfigManager configManager) {
+    public static CompletableFuture<Boolean> giveHatWithOverlay(Player player, String itemId, ConfigManager configManager) {
         if (!configManager.getHatsConfig().contains(itemId)) {
-            return false;
+            return CompletableFuture.completedFuture(false);
         }
 
         String materialStr = configManager.getHatsConfig().getString(itemId + ".material", "AIR");
         Material material = Material.getMaterial(materialStr.toUpperCase());
-        if (material == null) return false;
+        if (material == null) return CompletableFuture.completedFuture(false);
 
         String overlayPath = configManager.getHatsConfig().getString(itemId + ".overlay");
         if (overlayPath == null || overlayPath.isEmpty()) {
-            return false; // No overlay configured
+            return CompletableFuture.completedFuture(false); // No overlay configured
         }
 
         String itemModelStr = configManager.getHatsConfig().getString(itemId + ".item_model");
@@ -158,12 +181,21 @@ public class ItemManager {
                 ",minecraft:equippable={slot:\"head\",camera_overlay:\"" + overlayPath + "\",dispensable:true}] 1";
 
         GuppyCosmetics plugin = GuppyCosmetics.getPlugin(GuppyCosmetics.class);
+        CosmeticScheduler scheduler = plugin.getCosmeticScheduler();
+
+        // Console commands have to run on the global thread on Folia, the fix-up then goes back to the player's
+        if (scheduler.isFolia() && !Bukkit.isGlobalTickThread()) {
+            CompletableFuture<Boolean> result = new CompletableFuture<>();
+            scheduler.runGlobal(() -> giveHatWithOverlay(player, itemId, configManager).thenAccept(result::complete));
+            return result;
+        }
 
         // Execute the command to create the overlay item
         if (Bukkit.dispatchCommand(Bukkit.getConsoleSender(), command)) {
             // Find the newly created item in player's inventory and fix its metadata
             String finalOverlayPath = overlayPath;
-            plugin.getServer().getScheduler().runTaskLater(plugin, () -> {
+            CompletableFuture<Boolean> result = new CompletableFuture<>();
+            Runnable fixUp = () -> {
                 boolean found = false;
 
                 // Look through the player's inventory for the newly created item
@@ -343,14 +375,25 @@ public class ItemManager {
 
                         // Apply the updated metadata
                         helmet.setItemMeta(meta);
+                        found = true;
                     }
                 }
+
+                result.complete(found);
+            };
+            scheduler.runLater(player, () -> {
+                try {
+                    fixUp.run();
+                } catch (Exception e) {
+                    plugin.getLogger().warning("Error applying overlay hat " + itemId + " for " + player.getName() + ": " + e.getMessage());
+                    result.complete(false);
+                }
             }, 2L); // Short delay to ensure item is in inventory
 
-            return true;
+            return result;
         }
 
-        return false;
+        return CompletableFuture.completedFuture(false);
     }
 
     /**
@@ -0,0 +1,97 @@
+package com.tenshiku.guppycosmetics;
+
+import org.bukkit.Location;
+
+/**
+ * Level-of-detail scheduling for cosmetic updates.
+ * Cosmetics whose owner is moving are updated every tick, since the owner always sees their own.
+ * Those of idle owners are slowed down, more so when nobody else can see them, and promoted back
+ * as soon as someone approaches or the owner moves.
+ * Cosmetics can also be spread over several shards, each updated on its own ticks.
+ */
+public class LodScheduler {
+    private final ConfigManager configManager;
+
+    public LodScheduler(ConfigManager configManager) {
+        this.configManager = configManager;
+    }
+
+    /**
+     * Check whether a cosmetic should be updated on the given tick
+     * @param state The cosmetic's tracking data
+     * @param tick The current manager tick
+     * @param ownerLocation Scratch location used to read the owner's position
+     * @return true if the cosmetic is due or needs an early update
+     */
+    boolean isDue(CosmeticState state, long tick, Location ownerLocation) {
+        if (tick >= state.nextUpdateTick) return true;
+
+        // Only probe slowed-down cosmetics every few ticks, spread out by slot
+        if ((tick + state.slot) % configManager.getLodViewerCheckInterval() != 0) return false;
+
+        // Someone walked into tracking range
+        if (!state.watched && hasViewers(state)) return true;
+
+        // The owner stopped idling
+        return state.idle && state.hasMovedSince(state.player.getLocation(ownerLocation));
+    }
+
+    /**
+     * Record an update and pick the interval until the next one
+     * @param state The cosmetic's tracking data
+     * @param tick The current manager tick
+     * @param idleSeconds How long the owner has been standing still
+     * @param shards Number of shards from {@link #shardCount(int)}, 1 to update on any tick
+     */
+    void scheduleNext(CosmeticState state, long tick, double idleSeconds, int shards) {
+        state.lastUpdateTick = tick;
+
+        int interval;
+        if (!configManager.isLodEnabled()) {
+            state.watched = true;
+            state.idle = false;
+            interval = 1;
+        } else {
+            state.idle = idleSeconds >= configManager.getLodIdleSeconds();
+            // The owner watches their own cosmetics while moving, tracking never lists them
+            state.watched = !state.idle || hasViewers(state);
+
+            if (state.watched && !state.idle) {
+                interval = configManager.getLodFullInterval();
+            } else if (!state.watched && state.idle) {
+                interval = configManager.getLodMinimalInterval();
+            } else {
+                interval = configManager.getLodReducedInterval();
+            }
+        }
+        interval = Math.max(interval, state.minInterval);
+
+        long next = tick + interval;
+        if (shards > 1) {
+            // Round up to whole shard cycles, then move to this cosmetic's shard
+            // in case an early update pulled it off
+            next = tick + (interval + shards - 1) / shards * shards;
+            next += Math.floorMod(state.shard - next, (long) shards);
+        }
+        state.updateInterval = (int) (next - tick);
+        state.nextUpdateTick = next;
+    }
+
+    /**
+     * Pick how many shards to spread cosmetics over
+     * @param active Number of active cosmetics of one kind
+     * @return The configured shard count, or one chosen from the load
+     */
+    int shardCount(int active) {
+        int shards = configManager.getLodShards();
+        if (shards > 0) return shards;
+
+        int target = configManager.getLodShardTarget();
+        return Math.max(1, Math.min(configManager.getLodMaxShards(), (active + target - 1) / target));
+    }
+
+    private boolean hasViewers(CosmeticState state) {
+        // Anyone tracking the owner is close enough to see their cosmetics
+        return !state.player.getTrackedBy().isEmpty();
+    }
+}
@@ -0,0 +1,320 @@
+package com.tenshiku.guppycosmetics;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saved cosmetics, one small file per player under playerdata/ holding just the type and config id
+ * of each equipped cosmetic, the items themselves are rebuilt from the catalog on load.
+ * Files are spread over subfolders by the first characters of the UUID so no folder grows huge.
+ * Joins and quits only touch the files of the player involved, and all reading and writing happens
+ * on a single background thread.
+ * Saves are queued and written in batches every few seconds, a player saved several times before
+ * the next batch is only written once, and loads are answered from the queue when it has newer data.
+ */
+public class PlayerDataStore {
+    private final Plugin plugin;
+    private final CosmeticMetrics metrics;
+    private final File dataFolder;
+    private final ScheduledExecutorService executor;
+
+    // Latest unsaved cosmetics of each player, replaced by newer saves until the next flush
+    private final Map<UUID, PlayerCosmetics> pending = new ConcurrentHashMap<>();
+
+    // Cosmetics read at pre-login, waiting for the player to join
+    private final Map<UUID, StagedLoad> staged = new ConcurrentHashMap<>();
+
+    // How long shutdown waits for queued writes
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    // Staged data of players who never joined, for example because another plugin denied the login, is dropped after this
+    private static final long STAGED_EXPIRY_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    // Version of the player file format: 1 held whole serialized items, 2 holds type and id per slot
+    private static final int FORMAT_VERSION = 2;
+
+    /**
+     * Ids of the cosmetics stored for one player, either can be null
+     */
+    public static final class PlayerCosmetics {
+        public final String backblingId;
+        public final String balloonId;
+
+        public PlayerCosmetics(String backblingId, String balloonId) {
+            this.backblingId = backblingId;
+            this.balloonId = balloonId;
+        }
+
+        boolean isEmpty() {
+            return backblingId == null && balloonId == null;
+        }
+    }
+
+    private static final class StagedLoad {
+        final CompletableFuture<PlayerCosmetics> future;
+        final long stagedAt;
+
+        StagedLoad(CompletableFuture<PlayerCosmetics> future, long stagedAt) {
+            this.future = future;
+            this.stagedAt = stagedAt;
+        }
+    }
+
+    public PlayerDataStore(Plugin plugin, ConfigManager configManager, CosmeticMetrics metrics) {
+        this.plugin = plugin;
+        this.metrics = metrics;
+        this.dataFolder = new File(plugin.getDataFolder(), "playerdata");
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "GuppyCosmetics Storage");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // Queued first, so nothing is read before the old file has been split up
+        executor.execute(this::migrateLegacyFile);
+
+        long interval = configManager.getStorageFlushIntervalMillis();
+        executor.scheduleWithFixedDelay(this::writePending, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Read a player's cosmetics in the background
+     * @return A future with the stored cosmetics, empty if the player has none saved
+     */
+    public CompletableFuture<PlayerCosmetics> load(UUID uuid) {
+        // Not written yet, so newer than whatever is on disk
+        PlayerCosmetics queued = pending.get(uuid);
+        if (queued != null) {
+            return CompletableFuture.completedFuture(queued);
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            // Check again, a save may have been queued while this waited for the thread
+            PlayerCosmetics latest = pending.get(uuid);
+            return latest != null ? latest : read(uuid);
+        }, executor);
+    }
+
+    /**
+     * Start reading a player's cosmetics before they join, so the join only has to pick them up
+     */
+    public void preload(UUID uuid) {
+        long now = System.nanoTime();
+        staged.values().removeIf(load -> now - load.stagedAt > STAGED_EXPIRY_NANOS);
+        staged.put(uuid, new StagedLoad(load(uuid), now));
+    }
+
+    /**
+     * Get the cosmetics read by {@link #preload}, or read them now if they weren't staged
+     * @param timeoutMillis How long a staged read may take before it counts as missed and a warning is logged,
+     *                      the join still waits for it
+     * @return A future with the stored cosmetics, already complete if the staged read finished
+     */
+    public CompletableFuture<PlayerCosmetics> loadStaged(UUID uuid, long timeoutMillis) {
+        StagedLoad load = staged.remove(uuid);
+        if (load == null) {
+            metrics.increment(CosmeticMetrics.Counter.PRELOADS_MISSED);
+            return load(uuid);
+        }
+        if (load.future.isDone()) {
+            metrics.increment(CosmeticMetrics.Counter.PRELOADS_USED);
+            return load.future;
+        }
+
+        // Reading anywhere but the storage thread could race the migration or a write of this player's file,
+        // so a slow read is only reported, never replaced
+        CompletableFuture<PlayerCosmetics> deadline = load.future.copy()
+                .completeOnTimeout(null, timeoutMillis, TimeUnit.MILLISECONDS);
+        deadline.thenAccept(cosmetics -> {
+            if (cosmetics != null) {
+                metrics.increment(CosmeticMetrics.Counter.PRELOADS_USED);
+                return;
+            }
+            metrics.increment(CosmeticMetrics.Counter.PRELOADS_MISSED);
+            plugin.getLogger().warning("Cosmetics of player " + uuid + " are taking over " + timeoutMillis
+                    + " ms to load, still waiting for other storage work");
+        });
+        return load.future;
+    }
+
+    /**
+     * Queue a player's cosmetics to be written with the next batch, removing the record if both are null
+     */
+    public void save(UUID uuid, PlayerCosmetics cosmetics) {
+        // Anything staged was read before this save, the next join has to read again
+        staged.remove(uuid);
+        if (pending.put(uuid, cosmetics) != null) {
+            metrics.increment(CosmeticMetrics.Counter.SAVES_COALESCED);
+        }
+    }
+
+    /**
+     * Queue the cosmetics of many players at once, written together with the next batch
+     */
+    public void saveAll(Map<UUID, PlayerCosmetics> cosmetics) {
+        for (Map.Entry<UUID, PlayerCosmetics> entry : cosmetics.entrySet()) {
+            save(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Write everything queued now instead of waiting for the next batch
+     * @return A future completing once the queued data is on disk
+     */
+    public CompletableFuture<Void> flush() {
+        return CompletableFuture.runAsync(this::writePending, executor);
+    }
+
+    /**
+     * Stop accepting work, write everything still queued and wait for it to finish
+     */
+    public void shutdown() {
+        // Runs after anything already queued, the periodic flush is dropped by shutdown
+        executor.execute(this::writePending);
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                plugin.getLogger().severe("Timed out waiting for player data to be saved!");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writePending() {
+        for (Map.Entry<UUID, PlayerCosmetics> entry : pending.entrySet()) {
+            write(entry.getKey(), entry.getValue());
+
+            // Keep it queued if it was saved again while being written
+            pending.remove(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private File fileOf(UUID uuid) {
+        String name = uuid.toString();
+        return new File(new File(dataFolder, name.substring(0, 2)), name + ".yml");
+    }
+
+    private PlayerCosmetics read(UUID uuid) {
+        long start = System.nanoTime();
+        try {
+            File file = fileOf(uuid);
+            if (!file.exists()) {
+                return new PlayerCosmetics(null, null);
+            }
+
+            YamlConfiguration config = YamlConfiguration.loadConfiguration(file);
+            if (config.getInt("version", 1) < FORMAT_VERSION) {
+                // Saved by an older version, convert it once
+                PlayerCosmetics cosmetics = fromItems(config.getItemStack("backbling"), config.getItemStack("balloon"));
+                write(uuid, cosmetics);
+                return cosmetics;
+            }
+            return new PlayerCosmetics(readSlot(config, "backbling"), readSlot(config, "balloon"));
+        } catch (Exception e) {
+            plugin.getLogger().severe("Error loading cosmetics for player " + uuid + ": " + e.getMessage());
+            return new PlayerCosmetics(null, null);
+        } finally {
+            metrics.record(CosmeticMetrics.Timer.LOAD, start);
+        }
+    }
+
+    private void write(UUID uuid, PlayerCosmetics cosmetics) {
+        long start = System.nanoTime();
+        try {
+            File file = fileOf(uuid);
+            if (cosmetics.isEmpty()) {
+                // Nothing equipped any more, don't bring back what was saved before
+                if (file.exists() && !file.delete()) {
+                    plugin.getLogger().warning("Failed to remove cosmetic data for player " + uuid);
+                }
+                return;
+            }
+
+            YamlConfiguration config = new YamlConfiguration();
+            config.set("version", FORMAT_VERSION);
+            writeSlot(config, "backbling", cosmetics.backblingId);
+            writeSlot(config, "balloon", cosmetics.balloonId);
+
+            file.getParentFile().mkdirs();
+            config.save(file);
+        } catch (IOException e) {
+            plugin.getLogger().severe("Failed to save cosmetic data for player " + uuid);
+            plugin.getLogger().severe("Error: " + e.getMessage());
+        } finally {
+            metrics.record(CosmeticMetrics.Timer.SAVE, start);
+        }
+    }
+
+    private static void writeSlot(YamlConfiguration config, String type, String id) {
+        if (id == null) return;
+        config.set(type + ".type", type);
+        config.set(type + ".id", id);
+    }
+
+    private static String readSlot(YamlConfiguration config, String type) {
+        // Ignore anything that isn't the kind of cosmetic the slot holds
+        if (!type.equals(config.getString(type + ".type"))) return null;
+        return config.getString(type + ".id");
+    }
+
+    /**
+     * Reduce items saved by older versions to their cosmetic ids
+     */
+    private static PlayerCosmetics fromItems(ItemStack backbling, ItemStack balloon) {
+        return new PlayerCosmetics(
+                backbling != null ? ItemManager.getItemId(backbling) : null,
+                balloon != null ? ItemManager.getItemId(balloon) : null);
+    }
+
+    /**
+     * Split the players.yml used by older versions into per-player files, once
+     */
+    private void migrateLegacyFile() {
+        File legacyFile = new File(plugin.getDataFolder(), "players.yml");
+        if (!legacyFile.exists()) return;
+
+        YamlConfiguration legacy = YamlConfiguration.loadConfiguration(legacyFile);
+        ConfigurationSection players = legacy.getConfigurationSection("players");
+        int migrated = 0;
+        if (players != null) {
+            for (String key : players.getKeys(false)) {
+                UUID uuid;
+                try {
+                    uuid = UUID.fromString(key);
+                } catch (IllegalArgumentException e) {
+                    plugin.getLogger().warning("Skipping invalid player id in players.yml: " + key);
+                    continue;
+                }
+
+                // Data saved since the update is newer than the old file
+                if (fileOf(uuid).exists()) continue;
+
+                PlayerCosmetics cosmetics = fromItems(
+                        players.getItemStack(key + ".backbling"), players.getItemStack(key + ".balloon"));
+                if (cosmetics.isEmpty()) continue;
+
+                write(uuid, cosmetics);
+                migrated++;
+            }
+        }
+
+        // Keep the old file around in case something went wrong, but never migrate it twice
+        File backup = new File(plugin.getDataFolder(), "players.yml.migrated");
+        if (!legacyFile.renameTo(backup)) {
+            plugin.getLogger().severe("Could not rename players.yml after migrating it, it will be migrated again on the next start");
+        }
+        plugin.getLogger().info("Migrated cosmetics of " + migrated + " players from players.yml to playerdata/");
+    }
+}
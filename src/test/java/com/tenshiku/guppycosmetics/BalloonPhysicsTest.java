@@ -0,0 +1,210 @@
+package com.tenshiku.guppycosmetics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pins the balloon kernel to the behaviour of the per-tick update it replaced,
+ * so changes to the physics show up as a failing test instead of a balloon that moves differently.
+ */
+class BalloonPhysicsTest {
+    private static final double EPSILON = 1e-9;
+    private static final double DT = BalloonPhysics.TICK_SECONDS;
+
+    @Test
+    void restsBehindAndAbovePlayer() {
+        BalloonMotion motion = moving();
+        BalloonPhysics.step(motion, DT, 0, 64, 0, 0f, 0, 64, 0);
+
+        // Facing south (yaw 0) the balloon goes north, straight up above the follow distance
+        assertEquals(0, motion.targetX, EPSILON);
+        assertEquals(64 + BalloonPhysics.BALLOON_HEIGHT, motion.targetY, EPSILON);
+        assertEquals(-BalloonPhysics.FOLLOW_DISTANCE, motion.targetZ, EPSILON);
+        assertEquals(0f, motion.targetYaw);
+        assertEquals(0, motion.headPoseX, EPSILON);
+        assertEquals(0, motion.headPoseZ, EPSILON);
+    }
+
+    @Test
+    void followsPlayerYaw() {
+        BalloonMotion motion = moving();
+        BalloonPhysics.step(motion, DT, 0, 64, 0, 90f, 0, 64, 0);
+
+        // Facing west (yaw 90) the balloon goes east
+        assertEquals(-BalloonPhysics.FOLLOW_DISTANCE, motion.targetX, EPSILON);
+        assertEquals(0, motion.targetZ, EPSILON);
+        assertEquals(90f, motion.targetYaw);
+    }
+
+    @Test
+    void noSwayOrBobWhileMoving() {
+        BalloonMotion motion = new BalloonMotion();
+        // The first step has nothing to compare against, so it already counts as idle
+        BalloonPhysics.step(motion, DT, 0, 64, 0, 0f, 0, 64, 0);
+        for (int tick = 1; tick < 100; tick++) {
+            double x = tick * 0.2;
+            BalloonPhysics.step(motion, DT, x, 64, 0, 0f, x, 64, 0);
+
+            assertEquals(0, motion.idleTime, EPSILON);
+            assertEquals(x, motion.targetX, EPSILON);
+            assertEquals(64 + BalloonPhysics.BALLOON_HEIGHT, motion.targetY, EPSILON);
+        }
+    }
+
+    @Test
+    void swayFadesInOverTwoSecondsOfIdling() {
+        BalloonMotion motion = new BalloonMotion();
+        double maxEarly = 0;
+        double maxLate = 0;
+        for (int tick = 0; tick < 200; tick++) {
+            BalloonPhysics.step(motion, DT, 0, 64, 0, 0f, 0, 64, 0);
+            double sway = Math.abs(motion.targetX);
+            if (motion.idleTime <= 0.5) {
+                maxEarly = Math.max(maxEarly, sway);
+            } else if (motion.idleTime >= 2.0) {
+                maxLate = Math.max(maxLate, sway);
+            }
+
+            // Never more than the full amplitude, and scaled down until two seconds have passed
+            double idleFactor = Math.min(motion.idleTime, 2.0) / 2.0;
+            assertTrue(sway <= idleFactor * BalloonPhysics.SWAY_AMPLITUDE + EPSILON);
+            assertTrue(Math.abs(motion.targetY - 64 - BalloonPhysics.BALLOON_HEIGHT)
+                    <= idleFactor * BalloonPhysics.BOB_AMPLITUDE + EPSILON);
+        }
+        assertTrue(maxEarly < maxLate);
+        assertTrue(maxLate > BalloonPhysics.SWAY_AMPLITUDE * 0.9);
+    }
+
+    @Test
+    void neverFurtherThanMaxDistance() {
+        SplittableRandom random = new SplittableRandom(1);
+        BalloonMotion motion = new BalloonMotion();
+        for (int tick = 0; tick < 10_000; tick++) {
+            double playerX = random.nextDouble(-50, 50);
+            double playerY = random.nextDouble(0, 100);
+            double playerZ = random.nextDouble(-50, 50);
+            BalloonPhysics.step(motion, DT, playerX, playerY, playerZ, (float) random.nextDouble(-180, 180),
+                    random.nextDouble(-50, 50), random.nextDouble(0, 100), random.nextDouble(-50, 50));
+
+            double dx = motion.targetX - playerX;
+            double dy = motion.targetY - playerY;
+            double dz = motion.targetZ - playerZ;
+            assertTrue(dx * dx + dy * dy + dz * dz <= BalloonPhysics.MAX_DISTANCE * BalloonPhysics.MAX_DISTANCE + EPSILON);
+        }
+    }
+
+    @Test
+    void matchesPreviousPerTickUpdate() {
+        SplittableRandom random = new SplittableRandom(7);
+        BalloonMotion motion = new BalloonMotion();
+        PreviousUpdate previous = new PreviousUpdate();
+
+        double x = 0, y = 64, z = 0;
+        float yaw = 0;
+        double balloonX = 0, balloonY = 64, balloonZ = 0;
+        for (int tick = 0; tick < 2_000; tick++) {
+            // Alternate walking, turning and standing still
+            int phase = (tick / 100) % 3;
+            if (phase == 0) {
+                x += random.nextDouble(-0.3, 0.3);
+                z += random.nextDouble(-0.3, 0.3);
+            } else if (phase == 1) {
+                yaw += (float) random.nextDouble(-10, 10);
+            }
+
+            BalloonPhysics.step(motion, DT, x, y, z, yaw, balloonX, balloonY, balloonZ);
+            previous.update(x, y, z, yaw, balloonX, balloonY, balloonZ);
+
+            assertEquals(previous.targetX, motion.targetX, EPSILON, "x at tick " + tick);
+            assertEquals(previous.targetY, motion.targetY, EPSILON, "y at tick " + tick);
+            assertEquals(previous.targetZ, motion.targetZ, EPSILON, "z at tick " + tick);
+            assertEquals(previous.headPoseX, motion.headPoseX, EPSILON, "pose x at tick " + tick);
+            assertEquals(previous.headPoseZ, motion.headPoseZ, EPSILON, "pose z at tick " + tick);
+
+            // The balloon ends up where it was sent
+            balloonX = motion.targetX;
+            balloonY = motion.targetY;
+            balloonZ = motion.targetZ;
+        }
+    }
+
+    /**
+     * A balloon whose player just walked a block to the origin, so no idle animation is applied yet
+     */
+    private static BalloonMotion moving() {
+        BalloonMotion motion = new BalloonMotion();
+        BalloonPhysics.step(motion, DT, 1, 64, 0, 0f, 1, 64, 0);
+        return motion;
+    }
+
+    /**
+     * The balloon update as it was written before the kernel was extracted, one call per tick
+     */
+    private static final class PreviousUpdate {
+        boolean hasLast;
+        double lastX, lastY, lastZ;
+        double idleTime, bobPhase, swayPhase;
+        double targetX, targetY, targetZ, headPoseX, headPoseZ;
+
+        void update(double x, double y, double z, float yaw, double balloonX, double balloonY, double balloonZ) {
+            double movement = hasLast
+                    ? Math.sqrt((x - lastX) * (x - lastX) + (y - lastY) * (y - lastY) + (z - lastZ) * (z - lastZ))
+                    : 0;
+            if (movement < BalloonPhysics.IDLE_THRESHOLD) {
+                idleTime += 0.05;
+            } else {
+                idleTime = 0;
+            }
+
+            bobPhase = (bobPhase + BalloonPhysics.BOB_SPEED * 0.05) % (2 * Math.PI);
+            swayPhase = (swayPhase + BalloonPhysics.SWAY_SPEED * 0.05) % (2 * Math.PI);
+
+            double idleFactor = Math.min(idleTime, 2.0) / 2.0;
+            double bobOffset = idleFactor * BalloonPhysics.BOB_AMPLITUDE * Math.sin(bobPhase);
+            double swayOffset = idleFactor * BalloonPhysics.SWAY_AMPLITUDE * Math.sin(swayPhase);
+
+            double angle = Math.toRadians(yaw);
+            targetX = x + -Math.sin(angle) * BalloonPhysics.FOLLOW_DISTANCE + (swayOffset * Math.cos(angle));
+            targetY = y + bobOffset + BalloonPhysics.BALLOON_HEIGHT;
+            targetZ = z + -Math.cos(angle) * BalloonPhysics.FOLLOW_DISTANCE + (swayOffset * Math.sin(angle));
+
+            double toPlayerX = x - balloonX;
+            double toPlayerY = y - balloonY;
+            double toPlayerZ = z - balloonZ;
+            double distance = Math.sqrt(toPlayerX * toPlayerX + toPlayerY * toPlayerY + toPlayerZ * toPlayerZ);
+            if (distance > 0.1) {
+                double length = Math.min(distance * 0.3, 0.5);
+                toPlayerX = toPlayerX / distance * length;
+                toPlayerY = toPlayerY / distance * length;
+                toPlayerZ = toPlayerZ / distance * length;
+                targetX += toPlayerX;
+                targetY += toPlayerY;
+                targetZ += toPlayerZ;
+            }
+
+            double tiltZ = toPlayerZ * 30.0 * -1.0;
+            double tiltX = toPlayerX * 30.0 * -1.0 + idleFactor * 15.0 * Math.sin(swayPhase);
+            headPoseX = Math.toRadians(tiltZ);
+            headPoseZ = Math.toRadians(tiltX);
+
+            // Pulled back next to the player when too far away
+            double dx = targetX - x;
+            double dy = targetY - y;
+            double dz = targetZ - z;
+            if (Math.sqrt(dx * dx + dy * dy + dz * dz) > 5.0) {
+                targetX = x;
+                targetY = y + BalloonPhysics.BALLOON_HEIGHT;
+                targetZ = z;
+            }
+
+            hasLast = true;
+            lastX = x;
+            lastY = y;
+            lastZ = z;
+        }
+    }
+}
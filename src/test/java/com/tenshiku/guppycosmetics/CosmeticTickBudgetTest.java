@@ -0,0 +1,81 @@
+package com.tenshiku.guppycosmetics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Drives two update loops through one budget the way the balloon and backbling managers do.
+ */
+class CosmeticTickBudgetTest {
+    private static final long BUDGET_NANOS = TimeUnit.MICROSECONDS.toNanos(1500);
+
+    // Far more than the whole budget, as reported by a loop that ran long
+    private static final long OVERRUN_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    @Test
+    void secondLoopStillUpdatesWhenFirstUsedEverything() {
+        CosmeticTickBudget budget = new CosmeticTickBudget(() -> BUDGET_NANOS);
+
+        for (int tick = 0; tick < 20; tick++) {
+            runLoop(budget, tick, 100, OVERRUN_NANOS);
+            assertEquals(1, runLoop(budget, tick, 100, OVERRUN_NANOS), "updates of the second loop at tick " + tick);
+        }
+        assertEquals(20 * 99, budget.getDeferrals());
+    }
+
+    @Test
+    void firstLoopLeavesAShareForTheSecond() {
+        CosmeticTickBudget budget = new CosmeticTickBudget(() -> BUDGET_NANOS);
+
+        // The first tick shows how many loops share the budget
+        runLoop(budget, 0, 1, 0);
+        runLoop(budget, 0, 1, 0);
+
+        long start = System.nanoTime();
+        assertEquals(BUDGET_NANOS / 2, budget.begin(1, start) - start);
+        budget.end(start, start + BUDGET_NANOS / 4, 0);
+
+        // Gets its own half plus what the first loop didn't use
+        start = System.nanoTime();
+        assertEquals(BUDGET_NANOS * 3 / 4, budget.begin(1, start) - start);
+        budget.end(start, start, 0);
+    }
+
+    @Test
+    void budgetResetsEveryTick() {
+        CosmeticTickBudget budget = new CosmeticTickBudget(() -> BUDGET_NANOS);
+        runLoop(budget, 0, 100, OVERRUN_NANOS);
+        runLoop(budget, 0, 100, OVERRUN_NANOS);
+
+        long start = System.nanoTime();
+        assertEquals(BUDGET_NANOS / 2, budget.begin(1, start) - start);
+    }
+
+    @Test
+    void noBudgetMeansNoLimit() {
+        CosmeticTickBudget budget = new CosmeticTickBudget(() -> 0L);
+
+        assertEquals(100, runLoop(budget, 0, 100, OVERRUN_NANOS));
+        assertEquals(100, runLoop(budget, 0, 100, OVERRUN_NANOS));
+        assertEquals(0, budget.getDeferrals());
+    }
+
+    /**
+     * One manager's update loop over {@code due} cosmetics
+     * @param spentNanos How long the loop reports it took
+     * @return Number of cosmetics it updated before running out of time
+     */
+    private static int runLoop(CosmeticTickBudget budget, int tick, int due, long spentNanos) {
+        long start = System.nanoTime();
+        long deadline = budget.begin(tick, start);
+        int updated = 0;
+        while (updated < due && !CosmeticTickBudget.outOfTime(deadline, updated)) {
+            updated++;
+        }
+        budget.end(start, start + spentNanos, due - updated);
+        return updated;
+    }
+}